@@ -0,0 +1,74 @@
+package com.turkcell.bt.java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class GetAllPropertiesBenchmark {
+
+    @Param({"100", "10000"})
+    public int keyCount;
+
+    private BeyondTrustConfigurationManager manager;
+    private Map<String, String> snapshot;
+    private String lookupKey;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshot = new LinkedHashMap<>();
+        for (int index = 0; index < keyCount; index++) {
+            snapshot.put("bt.acc.System" + (index % 100) + ".Account" + index, "password-" + index);
+        }
+        lookupKey = "bt.acc.System0.Account0";
+
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        manager = new BeyondTrustConfigurationManager(options, () -> snapshot);
+        manager.load();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public String copyOnRead() {
+        Properties properties = new Properties();
+        properties.putAll(snapshot);
+        return properties.getProperty(lookupKey);
+    }
+
+    @Benchmark
+    public String sharedView() {
+        return manager.getAllProperties().getProperty(lookupKey);
+    }
+}
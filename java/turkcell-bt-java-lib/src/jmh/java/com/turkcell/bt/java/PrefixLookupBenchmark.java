@@ -0,0 +1,61 @@
+package com.turkcell.bt.java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrefixLookupBenchmark {
+
+    @Param({"1000", "50000"})
+    public int keyCount;
+
+    private Map<String, String> entries;
+    private BeyondTrustSnapshot snapshot;
+    private String prefix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entries = new LinkedHashMap<>();
+        for (int index = 0; index < keyCount; index++) {
+            entries.put("bt.acc.System" + (index % 500) + ".Account" + index, "password-" + index);
+        }
+        snapshot = new BeyondTrustSnapshot(entries);
+        prefix = "bt.acc.System42.";
+    }
+
+    @Benchmark
+    public void fullScan(Blackhole blackhole) {
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                blackhole.consume(entry.getValue());
+            }
+        }
+    }
+
+    @Benchmark
+    public void prefixIndex(Blackhole blackhole) {
+        for (String value : snapshot.getPropertiesByPrefix(prefix).values()) {
+            blackhole.consume(value);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.turkcell.bt.java;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseDecodingBenchmark {
+
+    private final String requestPayload = "{\"RequestID\":48213,\"SystemID\":12,\"AccountID\":345,"
+            + "\"DurationMinutes\":5,\"Reason\":\"Configuration refresh\"}";
+    private final String credentialPayload = "{\"AccountName\":\"svc-app\",\"SystemName\":\"db-prod-01\","
+            + "\"Password\":\"s3cr3t-value\"}";
+
+    @Benchmark
+    public String requestIdTreePerCall() throws Exception {
+        return readValueIgnoreCase(new ObjectMapper().readTree(requestPayload), "RequestID");
+    }
+
+    @Benchmark
+    public String requestIdStreaming() {
+        return BeyondTrustJson.parseRequestId(requestPayload);
+    }
+
+    @Benchmark
+    public String credentialTreePerCall() throws Exception {
+        JsonNode root = new ObjectMapper().readTree(credentialPayload);
+        String credential = readValueIgnoreCase(root, "Credential");
+        return credential != null ? credential : readValueIgnoreCase(root, "Password");
+    }
+
+    @Benchmark
+    public String credentialStreaming() {
+        return BeyondTrustJson.parseCredentialValue(credentialPayload);
+    }
+
+    private static String readValueIgnoreCase(JsonNode node, String propertyName) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> entry = fields.next();
+            if (entry.getKey().equalsIgnoreCase(propertyName)) {
+                return entry.getValue().asText();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.turkcell.bt.java;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+public final class BeyondTrustChangeEvent {
+    private final long generation;
+    private final Set<String> addedKeys;
+    private final Set<String> removedKeys;
+    private final Set<String> changedKeys;
+
+    BeyondTrustChangeEvent(long generation, Set<String> addedKeys, Set<String> removedKeys, Set<String> changedKeys) {
+        this.generation = generation;
+        this.addedKeys = Collections.unmodifiableSet(addedKeys);
+        this.removedKeys = Collections.unmodifiableSet(removedKeys);
+        this.changedKeys = Collections.unmodifiableSet(changedKeys);
+    }
+
+    static BeyondTrustChangeEvent between(long generation, Map<String, String> previous, Map<String, String> current) {
+        Set<String> addedKeys = new LinkedHashSet<>();
+        Set<String> changedKeys = new LinkedHashSet<>();
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            if (!previous.containsKey(entry.getKey())) {
+                addedKeys.add(entry.getKey());
+            } else if (!Objects.equals(previous.get(entry.getKey()), entry.getValue())) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+
+        Set<String> removedKeys = new LinkedHashSet<>();
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                removedKeys.add(key);
+            }
+        }
+
+        return new BeyondTrustChangeEvent(generation, addedKeys, removedKeys, changedKeys);
+    }
+
+    public long getGeneration() { return generation; }
+    public Set<String> getAddedKeys() { return addedKeys; }
+    public Set<String> getRemovedKeys() { return removedKeys; }
+    public Set<String> getChangedKeys() { return changedKeys; }
+
+    public boolean isEmpty() {
+        return addedKeys.isEmpty() && removedKeys.isEmpty() && changedKeys.isEmpty();
+    }
+
+    public boolean affects(String key) {
+        return addedKeys.contains(key) || removedKeys.contains(key) || changedKeys.contains(key);
+    }
+}
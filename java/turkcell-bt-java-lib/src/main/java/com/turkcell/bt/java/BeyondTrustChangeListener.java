@@ -0,0 +1,6 @@
+package com.turkcell.bt.java;
+
+@FunctionalInterface
+public interface BeyondTrustChangeListener {
+    void onChange(BeyondTrustChangeEvent event);
+}
@@ -0,0 +1,7 @@
+package com.turkcell.bt.java;
+
+public enum BeyondTrustCircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
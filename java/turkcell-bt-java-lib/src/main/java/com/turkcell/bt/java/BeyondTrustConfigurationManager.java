@@ -1,40 +1,100 @@
 package com.turkcell.bt.java;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class BeyondTrustConfigurationManager implements AutoCloseable {
 
     @FunctionalInterface
     interface SnapshotLoader {
         Map<String, String> load() throws Exception;
+
+        default FetchResult loadResult() throws Exception {
+            return FetchResult.complete(load());
+        }
+    }
+
+    @FunctionalInterface
+    interface CredentialResolver {
+        String resolve(String key);
+    }
+
+    @FunctionalInterface
+    interface HealthProbe {
+        void probe() throws Exception;
     }
 
     private final BeyondTrustOptions options;
     private final SnapshotLoader snapshotLoader;
-    private final AtomicReference<Map<String, String>> snapshot = new AtomicReference<>(Collections.emptyMap());
-    private final Object reloadLock = new Object();
+    private final CredentialResolver credentialResolver;
+    private final SnapshotFileCache snapshotCache;
+    private final HealthProbe healthProbe;
+    private final RefreshCircuitBreaker circuitBreaker;
+    private final RefreshSchedule refreshSchedule;
+    private final AtomicReference<BeyondTrustSnapshot> snapshot = new AtomicReference<>(BeyondTrustSnapshot.EMPTY);
+    private final AtomicLong generation = new AtomicLong();
+    private final List<BeyondTrustChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final ReentrantLock serviceLock = new ReentrantLock();
     private ScheduledExecutorService scheduler;
+    private BeyondTrustService service;
+    private volatile boolean closed;
 
     public BeyondTrustConfigurationManager(BeyondTrustOptions options) {
-        this(options, () -> {
-            try (BeyondTrustService service = new BeyondTrustService(options)) {
-                return service.fetchAllSecrets();
+        this.options = options;
+        this.snapshotLoader = new SnapshotLoader() {
+            @Override
+            public Map<String, String> load() {
+                return service().fetchAllSecrets();
+            }
+
+            @Override
+            public FetchResult loadResult() {
+                return service().fetchSnapshot();
             }
-        });
+        };
+        this.credentialResolver = options.isLazyManagedAccountsEnabled()
+                ? key -> service().resolveLazyCredential(key)
+                : null;
+        this.snapshotCache = SnapshotFileCache.fromOptions(options);
+        this.healthProbe = () -> service().probe();
+        this.circuitBreaker = RefreshCircuitBreaker.fromOptions(options);
+        this.refreshSchedule = RefreshSchedule.fromOptions(options);
     }
 
     BeyondTrustConfigurationManager(BeyondTrustOptions options, SnapshotLoader snapshotLoader) {
+        this(options, snapshotLoader, null);
+    }
+
+    BeyondTrustConfigurationManager(BeyondTrustOptions options, SnapshotLoader snapshotLoader, CredentialResolver credentialResolver) {
+        this(options, snapshotLoader, credentialResolver, null);
+    }
+
+    BeyondTrustConfigurationManager(BeyondTrustOptions options, SnapshotLoader snapshotLoader, CredentialResolver credentialResolver, HealthProbe healthProbe) {
         this.options = options;
         this.snapshotLoader = snapshotLoader;
+        this.credentialResolver = credentialResolver;
+        this.snapshotCache = SnapshotFileCache.fromOptions(options);
+        this.healthProbe = healthProbe;
+        this.circuitBreaker = RefreshCircuitBreaker.fromOptions(options);
+        this.refreshSchedule = RefreshSchedule.fromOptions(options);
     }
 
     public static BeyondTrustConfigurationManager createAndLoad() {
@@ -58,8 +118,18 @@ public class BeyondTrustConfigurationManager implements AutoCloseable {
             return;
         }
 
-        synchronized (reloadLock) {
-            if (loadSnapshot("Initial load")) {
+        if (options.isVirtualThreadsEnabled() && !BeyondTrustThreads.virtualThreadsSupported()) {
+            System.out.println("[BeyondTrust] BEYONDTRUST_VIRTUAL_THREADS_ENABLED requires Java 21 or newer. Using platform threads.");
+        }
+
+        reloadLock.lock();
+        try {
+            Map<String, String> cachedSnapshot = snapshotCache == null ? null : snapshotCache.read();
+            if (cachedSnapshot != null) {
+                publishSnapshot(cachedSnapshot);
+                System.out.println("[BeyondTrust] Serving " + cachedSnapshot.size() + " key(s) from the snapshot cache. Initial load continues in the background.");
+                scheduler().execute(this::initialLoadInBackground);
+            } else if (loadSnapshot("Initial load")) {
                 System.out.println("[BeyondTrust] Initial load completed. Loaded " + snapshot.get().size() + " key(s).");
             } else {
                 System.out.println("[BeyondTrust] Initial load failed. Keeping empty configuration snapshot.");
@@ -71,21 +141,77 @@ public class BeyondTrustConfigurationManager implements AutoCloseable {
             } else {
                 System.out.println("[BeyondTrust] Background refresh is disabled because BEYONDTRUST_REFRESH_INTERVAL=0.");
             }
+        } finally {
+            reloadLock.unlock();
         }
     }
 
     public String getProperty(String key) {
-        return snapshot.get().get(key);
+        String value = snapshot.get().getProperty(key);
+        if (value == null && credentialResolver != null && key != null && key.startsWith("bt.acc.")) {
+            value = resolveCredential(key);
+        }
+        return value;
     }
 
     public String getProperty(String key, String defaultValue) {
-        return snapshot.get().getOrDefault(key, defaultValue);
+        String value = getProperty(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public BeyondTrustSnapshot currentSnapshot() {
+        return snapshot.get();
+    }
+
+    public Map<String, String> getProperties(Collection<String> keys) {
+        Objects.requireNonNull(keys, "keys");
+        Map<String, String> values = snapshot.get().getProperties(keys);
+        if (credentialResolver == null || values.size() == keys.size()) {
+            return values;
+        }
+
+        Map<String, String> resolvedValues = new LinkedHashMap<>(values);
+        for (String key : keys) {
+            if (key != null && !resolvedValues.containsKey(key) && key.startsWith("bt.acc.")) {
+                String value = resolveCredential(key);
+                if (value != null) {
+                    resolvedValues.put(key, value);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(resolvedValues);
     }
 
     public Properties getAllProperties() {
-        Properties properties = new Properties();
-        properties.putAll(snapshot.get());
-        return properties;
+        return snapshot.get().properties();
+    }
+
+    public Map<String, String> getPropertyMap() {
+        return snapshot.get().getPropertyMap();
+    }
+
+    public Set<String> getStaleKeys() {
+        return snapshot.get().getStaleKeys();
+    }
+
+    public NavigableMap<String, String> getPropertiesByPrefix(String prefix) {
+        return snapshot.get().getPropertiesByPrefix(prefix);
+    }
+
+    public Map<String, String> getSubtree(String path) {
+        return snapshot.get().getSubtree(path);
+    }
+
+    public BeyondTrustCircuitState getCircuitState() {
+        return circuitBreaker.state();
+    }
+
+    public void addChangeListener(BeyondTrustChangeListener listener) {
+        changeListeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    public void removeChangeListener(BeyondTrustChangeListener listener) {
+        changeListeners.remove(listener);
     }
 
     private List<String> validateRequiredSettings() {
@@ -109,47 +235,230 @@ public class BeyondTrustConfigurationManager implements AutoCloseable {
             missingSettings.add("BEYONDTRUST_API_KEY");
         }
 
+        if (options.getSnapshotCachePath() != null && !options.getSnapshotCachePath().isBlank()
+                && (options.getSnapshotCacheKey() == null || options.getSnapshotCacheKey().isBlank())) {
+            missingSettings.add("BEYONDTRUST_SNAPSHOT_CACHE_KEY");
+        }
+
         return missingSettings;
     }
 
+    private ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    BeyondTrustThreads.threadFactory("BeyondTrust-Refresher-", virtualThreadsEnabled()));
+        }
+
+        return scheduler;
+    }
+
+    private boolean virtualThreadsEnabled() {
+        return options.isVirtualThreadsEnabled() && BeyondTrustThreads.virtualThreadsSupported();
+    }
+
     private void startRefreshTimer(long periodSeconds) {
-        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
-            Thread thread = new Thread(runnable, "BeyondTrust-Refresher");
-            thread.setDaemon(true);
-            return thread;
-        });
+        if (circuitBreaker.state() == BeyondTrustCircuitState.OPEN) {
+            scheduleRefresh(refreshSchedule.nextDelaySeconds(periodSeconds, nextRefreshDelaySeconds()));
+            return;
+        }
+
+        long initialDelaySeconds = refreshSchedule.initialDelaySeconds(periodSeconds);
+        if (initialDelaySeconds != periodSeconds) {
+            System.out.println("[BeyondTrust] First background refresh in " + initialDelaySeconds + "s (spread: " + refreshSchedule.spread() + ").");
+        }
+        scheduleRefresh(initialDelaySeconds);
+    }
+
+    private void scheduleRefresh(long delaySeconds) {
+        try {
+            scheduler().schedule(this::runScheduledRefresh, delaySeconds, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    private void runScheduledRefresh() {
+        try {
+            refreshInternal();
+        } finally {
+            scheduleRefresh(refreshSchedule.nextDelaySeconds(options.getRefreshIntervalSeconds(), nextRefreshDelaySeconds()));
+        }
+    }
+
+    private long nextRefreshDelaySeconds() {
+        return circuitBreaker.nextDelaySeconds(options.getRefreshIntervalSeconds());
+    }
 
-        scheduler.scheduleAtFixedRate(this::refreshInternal, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    private void initialLoadInBackground() {
+        reloadLock.lock();
+        try {
+            if (loadSnapshot("Initial load")) {
+                System.out.println("[BeyondTrust] Initial load completed. Loaded " + snapshot.get().size() + " key(s).");
+            } else {
+                System.out.println("[BeyondTrust] Initial load failed. Keeping the cached configuration snapshot.");
+            }
+        } finally {
+            reloadLock.unlock();
+        }
     }
 
     private void refreshInternal() {
-        synchronized (reloadLock) {
+        reloadLock.lock();
+        try {
+            if (circuitBreaker.tryHalfOpen() && !probeHealth()) {
+                return;
+            }
+
             if (!loadSnapshot("Refresh")) {
                 System.out.println("[BeyondTrust] Refresh failed. Keeping the last successful snapshot.");
             }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private boolean probeHealth() {
+        if (healthProbe == null) {
+            return true;
+        }
+
+        try {
+            healthProbe.probe();
+            return true;
+        } catch (Exception ex) {
+            System.err.println("[BeyondTrust] Health probe failed: " + ex.getMessage());
+            recordFailure();
+            return false;
+        }
+    }
+
+    private void recordFailure() {
+        BeyondTrustCircuitState previousState = circuitBreaker.recordFailure();
+        if (circuitBreaker.state() != BeyondTrustCircuitState.OPEN) {
+            return;
+        }
+
+        String nextAttempt = options.getRefreshIntervalSeconds() > 0
+                ? " Next attempt in " + nextRefreshDelaySeconds() + "s."
+                : "";
+        if (previousState == BeyondTrustCircuitState.CLOSED) {
+            System.out.println("[BeyondTrust] Circuit opened after " + circuitBreaker.consecutiveFailures() + " consecutive failure(s)." + nextAttempt);
+        } else if (previousState == BeyondTrustCircuitState.HALF_OPEN) {
+            System.out.println("[BeyondTrust] Circuit is still open." + nextAttempt);
+        }
+    }
+
+    private void recordSuccess() {
+        if (circuitBreaker.recordSuccess() != BeyondTrustCircuitState.CLOSED) {
+            System.out.println("[BeyondTrust] Circuit closed. Refresh resumes with the normal interval.");
+        }
+    }
+
+    private String resolveCredential(String key) {
+        try {
+            return credentialResolver.resolve(key);
+        } catch (RuntimeException ex) {
+            System.err.println("[BeyondTrust] On-demand credential load failed for " + key + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private BeyondTrustService service() {
+        serviceLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("BeyondTrust configuration manager is closed.");
+            }
+
+            if (service == null) {
+                service = new BeyondTrustService(options);
+            }
+
+            return service;
+        } finally {
+            serviceLock.unlock();
         }
     }
 
     private boolean loadSnapshot(String operation) {
         try {
-            Map<String, String> loadedSnapshot = snapshotLoader.load();
-            Map<String, String> normalizedSnapshot = new LinkedHashMap<>();
-            if (loadedSnapshot != null) {
-                normalizedSnapshot.putAll(loadedSnapshot);
+            FetchResult result = snapshotLoader.loadResult();
+            if (closed) {
+                System.out.println("[BeyondTrust] " + operation + " finished after close. Discarding the result.");
+                return false;
             }
 
-            snapshot.set(Collections.unmodifiableMap(normalizedSnapshot));
+            Map<String, String> normalizedSnapshot = new LinkedHashMap<>(result.entries());
+            Set<String> staleKeys = new LinkedHashSet<>();
+            if (result.isPartial()) {
+                for (Map.Entry<String, String> entry : snapshot.get().getPropertyMap().entrySet()) {
+                    if (result.isFailed(entry.getKey()) && !normalizedSnapshot.containsKey(entry.getKey())) {
+                        normalizedSnapshot.put(entry.getKey(), entry.getValue());
+                        staleKeys.add(entry.getKey());
+                    }
+                }
+                System.out.println("[BeyondTrust] " + operation + " completed partially. Kept previous values for " + staleKeys.size() + " key(s).");
+            }
+
+            publishSnapshot(normalizedSnapshot, staleKeys);
+            if (snapshotCache != null) {
+                snapshotCache.write(normalizedSnapshot);
+            }
+            recordSuccess();
             return true;
         } catch (Exception ex) {
             System.err.println("[BeyondTrust] " + operation + " failed: " + ex.getMessage());
+            recordFailure();
             return false;
         }
     }
 
+    private void publishSnapshot(Map<String, String> newSnapshot) {
+        publishSnapshot(newSnapshot, Set.of());
+    }
+
+    private void publishSnapshot(Map<String, String> newSnapshot, Set<String> staleKeys) {
+        long currentGeneration = generation.incrementAndGet();
+        BeyondTrustSnapshot currentSnapshot = new BeyondTrustSnapshot(newSnapshot, staleKeys, currentGeneration);
+        BeyondTrustSnapshot previousSnapshot = snapshot.getAndSet(currentSnapshot);
+        if (!changeListeners.isEmpty() && previousSnapshot.getContentHash() != currentSnapshot.getContentHash()) {
+            notifyChangeListeners(BeyondTrustChangeEvent.between(currentGeneration, previousSnapshot.getPropertyMap(), newSnapshot));
+        }
+    }
+
+    private void notifyChangeListeners(BeyondTrustChangeEvent event) {
+        if (event.isEmpty()) {
+            return;
+        }
+
+        for (BeyondTrustChangeListener listener : changeListeners) {
+            try {
+                listener.onChange(event);
+            } catch (RuntimeException ex) {
+                System.err.println("[BeyondTrust] Change listener failed: " + ex.getMessage());
+            }
+        }
+    }
+
     @Override
     public void close() {
+        closed = true;
         if (scheduler != null && !scheduler.isShutdown()) {
             scheduler.shutdownNow();
         }
+
+        reloadLock.lock();
+        try {
+            serviceLock.lock();
+            try {
+                if (service != null) {
+                    service.close();
+                    service = null;
+                }
+            } finally {
+                serviceLock.unlock();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
     }
 }
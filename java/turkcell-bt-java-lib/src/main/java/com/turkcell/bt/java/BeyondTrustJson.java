@@ -0,0 +1,107 @@
+package com.turkcell.bt.java;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+final class BeyondTrustJson {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String[] REQUEST_ID_FIELDS = {"RequestID"};
+    private static final String[] CREDENTIAL_FIELDS = {"Credential", "Password"};
+
+    private BeyondTrustJson() {
+    }
+
+    static String parseRequestId(String payload) {
+        if (payload == null || payload.isBlank()) {
+            return "";
+        }
+
+        String trimmed = payload.trim();
+        try (JsonParser parser = JSON_FACTORY.createParser(trimmed)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return parser.getText();
+            }
+
+            String requestId = readObjectFields(parser, token, REQUEST_ID_FIELDS)[0];
+            return requestId == null ? "" : requestId;
+        } catch (IOException ignored) {
+            return trimmed.replace("\"", "");
+        }
+    }
+
+    static String parseCredentialValue(String payload) {
+        if (payload == null || payload.isBlank()) {
+            return "";
+        }
+
+        String trimmed = payload.trim();
+        try (JsonParser parser = JSON_FACTORY.createParser(trimmed)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_STRING) {
+                return parser.getText();
+            }
+
+            String[] values = readObjectFields(parser, token, CREDENTIAL_FIELDS);
+            if (values[0] != null) {
+                return values[0];
+            }
+
+            if (values[1] != null) {
+                return values[1];
+            }
+        } catch (IOException ignored) {
+            return trimmed.replace("\"", "");
+        }
+
+        return trimmed.replace("\"", "");
+    }
+
+    static String[] readObjectFields(String payload, String... fieldNames) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(payload == null ? "" : payload)) {
+            return readObjectFields(parser, parser.nextToken(), fieldNames);
+        }
+    }
+
+    private static String[] readObjectFields(JsonParser parser, JsonToken token, String[] fieldNames) throws IOException {
+        String[] values = new String[fieldNames.length];
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return values;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            int index = indexOfIgnoreCase(fieldNames, parser.currentName());
+            JsonToken valueToken = parser.nextToken();
+            if (index >= 0 && values[index] == null) {
+                values[index] = valueText(parser, valueToken);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return values;
+    }
+
+    private static int indexOfIgnoreCase(String[] fieldNames, String name) {
+        for (int index = 0; index < fieldNames.length; index++) {
+            if (fieldNames[index].equalsIgnoreCase(name)) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    private static String valueText(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return "";
+        }
+
+        return parser.getText();
+    }
+}
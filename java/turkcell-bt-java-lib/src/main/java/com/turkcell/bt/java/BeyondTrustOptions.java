@@ -1,9 +1,32 @@
 package com.turkcell.bt.java;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.Executor;
+
 public class BeyondTrustOptions {
     private static final int DEFAULT_REFRESH_INTERVAL_SECONDS = 1800;
+    private static final int DEFAULT_FETCH_CONCURRENCY = 1;
+    private static final int DEFAULT_LAZY_CREDENTIAL_TTL_SECONDS = 300;
+    private static final int DEFAULT_SNAPSHOT_CACHE_MAX_AGE_SECONDS = 86400;
+    private static final int DEFAULT_CREDENTIAL_POLL_ATTEMPTS = 5;
+    private static final int DEFAULT_CREDENTIAL_POLL_INITIAL_DELAY_MILLIS = 1000;
+    private static final int DEFAULT_CREDENTIAL_POLL_MAX_DELAY_MILLIS = 8000;
+    private static final int DEFAULT_CREDENTIAL_POLL_TIMEOUT_SECONDS = 30;
+    private static final int DEFAULT_CHECKIN_RETRY_ATTEMPTS = 3;
+    private static final int DEFAULT_REQUEST_DURATION_MINUTES = 5;
+    private static final int DEFAULT_MANAGED_ACCOUNT_LOOKUP_THRESHOLD = 0;
+    private static final HttpClient.Version DEFAULT_HTTP_VERSION = HttpClient.Version.HTTP_1_1;
+    private static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 30;
+    private static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 30;
+    private static final int DEFAULT_CIRCUIT_FAILURE_THRESHOLD = 3;
+    private static final int DEFAULT_CIRCUIT_MAX_BACKOFF_SECONDS = 3600;
+    private static final BeyondTrustRefreshSpread DEFAULT_REFRESH_SPREAD = BeyondTrustRefreshSpread.NONE;
+    private static final int DEFAULT_REFRESH_JITTER_PERCENT = 0;
+    private static final int MAX_REFRESH_JITTER_PERCENT = 50;
+    private static final int DEFAULT_ACCOUNT_CATALOG_TTL_SECONDS = 0;
 
     @JsonProperty("BEYONDTRUST_ENABLED")
     private boolean enabled = true;
@@ -48,6 +71,84 @@ public class BeyondTrustOptions {
     @JsonProperty("BEYONDTRUST_ALL_SECRETS_ENABLED")
     private boolean allSecretsEnabled;
 
+    @JsonProperty("BEYONDTRUST_FETCH_CONCURRENCY")
+    private int fetchConcurrency = DEFAULT_FETCH_CONCURRENCY;
+
+    @JsonProperty("BEYONDTRUST_LAZY_MANAGED_ACCOUNTS_ENABLED")
+    private boolean lazyManagedAccountsEnabled;
+
+    @JsonProperty("BEYONDTRUST_LAZY_CREDENTIAL_TTL")
+    private int lazyCredentialTtlSeconds = DEFAULT_LAZY_CREDENTIAL_TTL_SECONDS;
+
+    @JsonProperty("BEYONDTRUST_SNAPSHOT_CACHE_PATH")
+    private String snapshotCachePath;
+
+    @JsonProperty("BEYONDTRUST_SNAPSHOT_CACHE_KEY")
+    private String snapshotCacheKey;
+
+    @JsonProperty("BEYONDTRUST_SNAPSHOT_CACHE_MAX_AGE")
+    private int snapshotCacheMaxAgeSeconds = DEFAULT_SNAPSHOT_CACHE_MAX_AGE_SECONDS;
+
+    @JsonProperty("BEYONDTRUST_CREDENTIAL_POLL_ATTEMPTS")
+    private int credentialPollAttempts = DEFAULT_CREDENTIAL_POLL_ATTEMPTS;
+
+    @JsonProperty("BEYONDTRUST_CREDENTIAL_POLL_INITIAL_DELAY_MS")
+    private int credentialPollInitialDelayMillis = DEFAULT_CREDENTIAL_POLL_INITIAL_DELAY_MILLIS;
+
+    @JsonProperty("BEYONDTRUST_CREDENTIAL_POLL_MAX_DELAY_MS")
+    private int credentialPollMaxDelayMillis = DEFAULT_CREDENTIAL_POLL_MAX_DELAY_MILLIS;
+
+    @JsonProperty("BEYONDTRUST_CREDENTIAL_POLL_TIMEOUT")
+    private int credentialPollTimeoutSeconds = DEFAULT_CREDENTIAL_POLL_TIMEOUT_SECONDS;
+
+    @JsonProperty("BEYONDTRUST_ASYNC_CHECKIN_ENABLED")
+    private boolean asyncCheckInEnabled;
+
+    @JsonProperty("BEYONDTRUST_CHECKIN_RETRY_ATTEMPTS")
+    private int checkInRetryAttempts = DEFAULT_CHECKIN_RETRY_ATTEMPTS;
+
+    @JsonProperty("BEYONDTRUST_REQUEST_DURATION_MINUTES")
+    private int requestDurationMinutes = DEFAULT_REQUEST_DURATION_MINUTES;
+
+    @JsonProperty("BEYONDTRUST_REQUEST_LEASE_ENABLED")
+    private boolean requestLeaseEnabled;
+
+    @JsonProperty("BEYONDTRUST_MANAGED_ACCOUNT_LOOKUP_THRESHOLD")
+    private int managedAccountLookupThreshold = DEFAULT_MANAGED_ACCOUNT_LOOKUP_THRESHOLD;
+
+    @JsonProperty("BEYONDTRUST_HTTP_VERSION")
+    private HttpClient.Version httpVersion = DEFAULT_HTTP_VERSION;
+
+    @JsonProperty("BEYONDTRUST_CONNECT_TIMEOUT")
+    private int connectTimeoutSeconds = DEFAULT_CONNECT_TIMEOUT_SECONDS;
+
+    @JsonProperty("BEYONDTRUST_REQUEST_TIMEOUT")
+    private int requestTimeoutSeconds = DEFAULT_REQUEST_TIMEOUT_SECONDS;
+
+    @JsonIgnore
+    private Executor httpExecutor;
+
+    @JsonProperty("BEYONDTRUST_CIRCUIT_FAILURE_THRESHOLD")
+    private int circuitFailureThreshold = DEFAULT_CIRCUIT_FAILURE_THRESHOLD;
+
+    @JsonProperty("BEYONDTRUST_CIRCUIT_MAX_BACKOFF")
+    private int circuitMaxBackoffSeconds = DEFAULT_CIRCUIT_MAX_BACKOFF_SECONDS;
+
+    @JsonProperty("BEYONDTRUST_REFRESH_SPREAD")
+    private BeyondTrustRefreshSpread refreshSpread = DEFAULT_REFRESH_SPREAD;
+
+    @JsonProperty("BEYONDTRUST_REFRESH_JITTER_PERCENT")
+    private int refreshJitterPercent = DEFAULT_REFRESH_JITTER_PERCENT;
+
+    @JsonProperty("BEYONDTRUST_INSTANCE_ID")
+    private String instanceId;
+
+    @JsonProperty("BEYONDTRUST_ACCOUNT_CATALOG_TTL")
+    private int accountCatalogTtlSeconds = DEFAULT_ACCOUNT_CATALOG_TTL_SECONDS;
+
+    @JsonProperty("BEYONDTRUST_VIRTUAL_THREADS_ENABLED")
+    private boolean virtualThreadsEnabled = false;
+
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
     public String getApiUrl() { return apiUrl; }
@@ -80,6 +181,78 @@ public class BeyondTrustOptions {
     public void setSecretSafePaths(String secretSafePaths) { this.secretSafePaths = secretSafePaths; }
     public boolean isAllSecretsEnabled() { return allSecretsEnabled; }
     public void setAllSecretsEnabled(boolean allSecretsEnabled) { this.allSecretsEnabled = allSecretsEnabled; }
+    public int getFetchConcurrency() { return fetchConcurrency; }
+    public void setFetchConcurrency(int fetchConcurrency) { this.fetchConcurrency = fetchConcurrency; }
+    public boolean isLazyManagedAccountsEnabled() { return lazyManagedAccountsEnabled; }
+    public void setLazyManagedAccountsEnabled(boolean lazyManagedAccountsEnabled) { this.lazyManagedAccountsEnabled = lazyManagedAccountsEnabled; }
+    public int getLazyCredentialTtlSeconds() { return lazyCredentialTtlSeconds; }
+    public void setLazyCredentialTtlSeconds(int lazyCredentialTtlSeconds) { this.lazyCredentialTtlSeconds = lazyCredentialTtlSeconds; }
+    public String getSnapshotCachePath() { return snapshotCachePath; }
+    public void setSnapshotCachePath(String snapshotCachePath) { this.snapshotCachePath = snapshotCachePath; }
+    public String getSnapshotCacheKey() { return snapshotCacheKey; }
+    public void setSnapshotCacheKey(String snapshotCacheKey) { this.snapshotCacheKey = snapshotCacheKey; }
+    public int getSnapshotCacheMaxAgeSeconds() { return snapshotCacheMaxAgeSeconds; }
+    public void setSnapshotCacheMaxAgeSeconds(int snapshotCacheMaxAgeSeconds) { this.snapshotCacheMaxAgeSeconds = snapshotCacheMaxAgeSeconds; }
+
+    public int getCredentialPollAttempts() { return credentialPollAttempts; }
+    public void setCredentialPollAttempts(int credentialPollAttempts) { this.credentialPollAttempts = credentialPollAttempts; }
+
+    public int getCredentialPollInitialDelayMillis() { return credentialPollInitialDelayMillis; }
+    public void setCredentialPollInitialDelayMillis(int credentialPollInitialDelayMillis) { this.credentialPollInitialDelayMillis = credentialPollInitialDelayMillis; }
+
+    public int getCredentialPollMaxDelayMillis() { return credentialPollMaxDelayMillis; }
+    public void setCredentialPollMaxDelayMillis(int credentialPollMaxDelayMillis) { this.credentialPollMaxDelayMillis = credentialPollMaxDelayMillis; }
+
+    public int getCredentialPollTimeoutSeconds() { return credentialPollTimeoutSeconds; }
+    public void setCredentialPollTimeoutSeconds(int credentialPollTimeoutSeconds) { this.credentialPollTimeoutSeconds = credentialPollTimeoutSeconds; }
+
+    public boolean isAsyncCheckInEnabled() { return asyncCheckInEnabled; }
+    public void setAsyncCheckInEnabled(boolean asyncCheckInEnabled) { this.asyncCheckInEnabled = asyncCheckInEnabled; }
+
+    public int getCheckInRetryAttempts() { return checkInRetryAttempts; }
+    public void setCheckInRetryAttempts(int checkInRetryAttempts) { this.checkInRetryAttempts = checkInRetryAttempts; }
+
+    public int getRequestDurationMinutes() { return requestDurationMinutes; }
+    public void setRequestDurationMinutes(int requestDurationMinutes) { this.requestDurationMinutes = requestDurationMinutes; }
+
+    public boolean isRequestLeaseEnabled() { return requestLeaseEnabled; }
+    public void setRequestLeaseEnabled(boolean requestLeaseEnabled) { this.requestLeaseEnabled = requestLeaseEnabled; }
+
+    public int getManagedAccountLookupThreshold() { return managedAccountLookupThreshold; }
+    public void setManagedAccountLookupThreshold(int managedAccountLookupThreshold) { this.managedAccountLookupThreshold = managedAccountLookupThreshold; }
+
+    public HttpClient.Version getHttpVersion() { return httpVersion; }
+    public void setHttpVersion(HttpClient.Version httpVersion) { this.httpVersion = httpVersion; }
+
+    public int getConnectTimeoutSeconds() { return connectTimeoutSeconds; }
+    public void setConnectTimeoutSeconds(int connectTimeoutSeconds) { this.connectTimeoutSeconds = connectTimeoutSeconds; }
+
+    public int getRequestTimeoutSeconds() { return requestTimeoutSeconds; }
+    public void setRequestTimeoutSeconds(int requestTimeoutSeconds) { this.requestTimeoutSeconds = requestTimeoutSeconds; }
+
+    public Executor getHttpExecutor() { return httpExecutor; }
+    public void setHttpExecutor(Executor httpExecutor) { this.httpExecutor = httpExecutor; }
+
+    public int getCircuitFailureThreshold() { return circuitFailureThreshold; }
+    public void setCircuitFailureThreshold(int circuitFailureThreshold) { this.circuitFailureThreshold = circuitFailureThreshold; }
+
+    public int getCircuitMaxBackoffSeconds() { return circuitMaxBackoffSeconds; }
+    public void setCircuitMaxBackoffSeconds(int circuitMaxBackoffSeconds) { this.circuitMaxBackoffSeconds = circuitMaxBackoffSeconds; }
+
+    public BeyondTrustRefreshSpread getRefreshSpread() { return refreshSpread; }
+    public void setRefreshSpread(BeyondTrustRefreshSpread refreshSpread) { this.refreshSpread = refreshSpread; }
+
+    public int getRefreshJitterPercent() { return refreshJitterPercent; }
+    public void setRefreshJitterPercent(int refreshJitterPercent) { this.refreshJitterPercent = refreshJitterPercent; }
+
+    public String getInstanceId() { return instanceId; }
+    public void setInstanceId(String instanceId) { this.instanceId = instanceId; }
+
+    public int getAccountCatalogTtlSeconds() { return accountCatalogTtlSeconds; }
+    public void setAccountCatalogTtlSeconds(int accountCatalogTtlSeconds) { this.accountCatalogTtlSeconds = accountCatalogTtlSeconds; }
+
+    public boolean isVirtualThreadsEnabled() { return virtualThreadsEnabled; }
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) { this.virtualThreadsEnabled = virtualThreadsEnabled; }
 
     public static BeyondTrustOptions fromEnv() {
         BeyondTrustOptions options = new BeyondTrustOptions();
@@ -100,6 +273,31 @@ public class BeyondTrustOptions {
         options.setSecretSafePaths(readString("BEYONDTRUST_SECRET_SAFE_PATHS"));
         options.setAllSecretsEnabled(readBoolean("BEYONDTRUST_ALL_SECRETS_ENABLED", false));
         options.setRefreshIntervalSeconds(readRefreshInterval());
+        options.setFetchConcurrency(readPositiveInteger("BEYONDTRUST_FETCH_CONCURRENCY", DEFAULT_FETCH_CONCURRENCY));
+        options.setLazyManagedAccountsEnabled(readBoolean("BEYONDTRUST_LAZY_MANAGED_ACCOUNTS_ENABLED", false));
+        options.setLazyCredentialTtlSeconds(readPositiveInteger("BEYONDTRUST_LAZY_CREDENTIAL_TTL", DEFAULT_LAZY_CREDENTIAL_TTL_SECONDS));
+        options.setSnapshotCachePath(readString("BEYONDTRUST_SNAPSHOT_CACHE_PATH"));
+        options.setSnapshotCacheKey(readString("BEYONDTRUST_SNAPSHOT_CACHE_KEY"));
+        options.setSnapshotCacheMaxAgeSeconds(readPositiveInteger("BEYONDTRUST_SNAPSHOT_CACHE_MAX_AGE", DEFAULT_SNAPSHOT_CACHE_MAX_AGE_SECONDS));
+        options.setCredentialPollAttempts(readPositiveInteger("BEYONDTRUST_CREDENTIAL_POLL_ATTEMPTS", DEFAULT_CREDENTIAL_POLL_ATTEMPTS));
+        options.setCredentialPollInitialDelayMillis(readPositiveInteger("BEYONDTRUST_CREDENTIAL_POLL_INITIAL_DELAY_MS", DEFAULT_CREDENTIAL_POLL_INITIAL_DELAY_MILLIS));
+        options.setCredentialPollMaxDelayMillis(readPositiveInteger("BEYONDTRUST_CREDENTIAL_POLL_MAX_DELAY_MS", DEFAULT_CREDENTIAL_POLL_MAX_DELAY_MILLIS));
+        options.setCredentialPollTimeoutSeconds(readPositiveInteger("BEYONDTRUST_CREDENTIAL_POLL_TIMEOUT", DEFAULT_CREDENTIAL_POLL_TIMEOUT_SECONDS));
+        options.setAsyncCheckInEnabled(readBoolean("BEYONDTRUST_ASYNC_CHECKIN_ENABLED", false));
+        options.setCheckInRetryAttempts(readPositiveInteger("BEYONDTRUST_CHECKIN_RETRY_ATTEMPTS", DEFAULT_CHECKIN_RETRY_ATTEMPTS));
+        options.setRequestDurationMinutes(readPositiveInteger("BEYONDTRUST_REQUEST_DURATION_MINUTES", DEFAULT_REQUEST_DURATION_MINUTES));
+        options.setRequestLeaseEnabled(readBoolean("BEYONDTRUST_REQUEST_LEASE_ENABLED", false));
+        options.setManagedAccountLookupThreshold(readNonNegativeInteger("BEYONDTRUST_MANAGED_ACCOUNT_LOOKUP_THRESHOLD", DEFAULT_MANAGED_ACCOUNT_LOOKUP_THRESHOLD));
+        options.setHttpVersion(readHttpVersion());
+        options.setConnectTimeoutSeconds(readPositiveInteger("BEYONDTRUST_CONNECT_TIMEOUT", DEFAULT_CONNECT_TIMEOUT_SECONDS));
+        options.setRequestTimeoutSeconds(readPositiveInteger("BEYONDTRUST_REQUEST_TIMEOUT", DEFAULT_REQUEST_TIMEOUT_SECONDS));
+        options.setCircuitFailureThreshold(readPositiveInteger("BEYONDTRUST_CIRCUIT_FAILURE_THRESHOLD", DEFAULT_CIRCUIT_FAILURE_THRESHOLD));
+        options.setCircuitMaxBackoffSeconds(readPositiveInteger("BEYONDTRUST_CIRCUIT_MAX_BACKOFF", DEFAULT_CIRCUIT_MAX_BACKOFF_SECONDS));
+        options.setRefreshSpread(readRefreshSpread());
+        options.setRefreshJitterPercent(readPercent("BEYONDTRUST_REFRESH_JITTER_PERCENT", DEFAULT_REFRESH_JITTER_PERCENT, MAX_REFRESH_JITTER_PERCENT));
+        options.setInstanceId(readString("BEYONDTRUST_INSTANCE_ID"));
+        options.setAccountCatalogTtlSeconds(readNonNegativeInteger("BEYONDTRUST_ACCOUNT_CATALOG_TTL", DEFAULT_ACCOUNT_CATALOG_TTL_SECONDS));
+        options.setVirtualThreadsEnabled(readBoolean("BEYONDTRUST_VIRTUAL_THREADS_ENABLED", false));
         return options;
     }
 
@@ -159,6 +357,81 @@ public class BeyondTrustOptions {
         return DEFAULT_REFRESH_INTERVAL_SECONDS;
     }
 
+    private static HttpClient.Version readHttpVersion() {
+        String value = readString("BEYONDTRUST_HTTP_VERSION");
+        if (value == null || value.isBlank()) {
+            return DEFAULT_HTTP_VERSION;
+        }
+
+        String normalized = value.trim();
+        if ("HTTP_1_1".equalsIgnoreCase(normalized) || "1.1".equals(normalized)) {
+            return HttpClient.Version.HTTP_1_1;
+        }
+
+        if ("HTTP_2".equalsIgnoreCase(normalized) || "2".equals(normalized)) {
+            return HttpClient.Version.HTTP_2;
+        }
+
+        throw new IllegalArgumentException("Invalid BEYONDTRUST_HTTP_VERSION value. Expected 'HTTP_1_1' or 'HTTP_2'.");
+    }
+
+    private static BeyondTrustRefreshSpread readRefreshSpread() {
+        String value = readString("BEYONDTRUST_REFRESH_SPREAD");
+        if (value == null || value.isBlank()) {
+            return DEFAULT_REFRESH_SPREAD;
+        }
+
+        for (BeyondTrustRefreshSpread spread : BeyondTrustRefreshSpread.values()) {
+            if (spread.name().equalsIgnoreCase(value.trim())) {
+                return spread;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid BEYONDTRUST_REFRESH_SPREAD value. Expected 'none', 'random' or 'instance'.");
+    }
+
+    private static int readPercent(String key, int defaultValue, int maxValue) {
+        String value = readString(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        Integer parsed = tryParseInteger(value);
+        if (parsed != null && parsed >= 0 && parsed <= maxValue) {
+            return parsed;
+        }
+
+        throw new IllegalArgumentException("Invalid " + key + " value. Expected an integer between 0 and " + maxValue + ".");
+    }
+
+    private static int readPositiveInteger(String key, int defaultValue) {
+        String value = readString(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        Integer parsed = tryParseInteger(value);
+        if (parsed != null && parsed > 0) {
+            return parsed;
+        }
+
+        throw new IllegalArgumentException("Invalid " + key + " value. Expected a positive integer.");
+    }
+
+    private static int readNonNegativeInteger(String key, int defaultValue) {
+        String value = readString(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        Integer parsed = tryParseInteger(value);
+        if (parsed != null && parsed >= 0) {
+            return parsed;
+        }
+
+        throw new IllegalArgumentException("Invalid " + key + " value. Expected a non-negative integer.");
+    }
+
     private static Integer tryParseInteger(String rawValue) {
         try {
             return Integer.parseInt(rawValue.trim());
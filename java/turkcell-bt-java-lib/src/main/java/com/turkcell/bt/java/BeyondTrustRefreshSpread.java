@@ -0,0 +1,7 @@
+package com.turkcell.bt.java;
+
+public enum BeyondTrustRefreshSpread {
+    NONE,
+    RANDOM,
+    INSTANCE
+}
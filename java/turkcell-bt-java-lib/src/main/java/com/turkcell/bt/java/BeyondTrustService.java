@@ -1,7 +1,7 @@
 package com.turkcell.bt.java;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,6 +12,9 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
 import java.net.URI;
@@ -20,35 +23,113 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
 import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class BeyondTrustService implements AutoCloseable {
 
-    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration TOKEN_EXPIRY_SKEW = Duration.ofSeconds(60);
+    private static final Duration CHECKIN_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration CHECKIN_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration LAZY_CREDENTIAL_RETRY_DELAY = Duration.ofSeconds(5);
 
     private final BeyondTrustOptions options;
     private final HttpClient httpClient;
+    private final boolean ownsHttpClient;
+    private final ExecutorService ownedHttpExecutor;
     private final ObjectMapper objectMapper;
-    private String bearerToken;
+    private final Clock clock;
+    private final Duration requestTimeout;
+    private final CredentialPollPolicy credentialPollPolicy;
+    private final CheckInQueue checkInQueue;
+    private final RequestLeaseManager requestLeases;
+    private final ReentrantLock sessionLock = new ReentrantLock();
+    private final ReentrantLock executorLock = new ReentrantLock();
+    private final ReentrantLock closeLock = new ReentrantLock();
+    private volatile String bearerToken;
+    private CompletableFuture<Void> session;
+    private Instant sessionExpiresAt;
+    private long sessionGeneration;
+    private volatile Map<String, ManagedAccountDto> managedAccountCatalog = Collections.emptyMap();
+    private final ConcurrentHashMap<String, LazyCredential> lazyCredentials = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SecretSafeFolder> secretSafeFolders = new ConcurrentHashMap<>();
+    private final AtomicBoolean accountCatalogRefreshing = new AtomicBoolean();
+    private volatile AccountCatalog accountCatalog;
+    private ExecutorService fetchExecutor;
 
     public BeyondTrustService(BeyondTrustOptions options) {
-        this(options, createHttpClient(options));
+        this(options, createHttpExecutor(options), Clock.systemUTC());
     }
 
     public BeyondTrustService(BeyondTrustOptions options, HttpClient httpClient) {
+        this(options, httpClient, false, null, Clock.systemUTC());
+    }
+
+    BeyondTrustService(BeyondTrustOptions options, HttpClient httpClient, Clock clock) {
+        this(options, httpClient, false, null, clock);
+    }
+
+    BeyondTrustService(BeyondTrustOptions options, HttpClient httpClient, ExecutorService ownedHttpExecutor, Clock clock) {
+        this(options, httpClient, false, ownedHttpExecutor, clock);
+    }
+
+    private BeyondTrustService(BeyondTrustOptions options, ExecutorService ownedHttpExecutor, Clock clock) {
+        this(options, createHttpClient(options, ownedHttpExecutor), true, ownedHttpExecutor, clock);
+    }
+
+    private BeyondTrustService(
+            BeyondTrustOptions options,
+            HttpClient httpClient,
+            boolean ownsHttpClient,
+            ExecutorService ownedHttpExecutor,
+            Clock clock) {
         this.options = options;
         this.httpClient = httpClient;
+        this.ownsHttpClient = ownsHttpClient;
+        this.ownedHttpExecutor = ownedHttpExecutor;
+        this.clock = clock;
+        this.requestTimeout = Duration.ofSeconds(Math.max(1, options.getRequestTimeoutSeconds()));
+        this.credentialPollPolicy = CredentialPollPolicy.fromOptions(options);
+        this.checkInQueue = options.isAsyncCheckInEnabled()
+                ? new CheckInQueue(this::sendQueuedCheckIn, options.getCheckInRetryAttempts(), CHECKIN_RETRY_DELAY)
+                : null;
+        this.requestLeases = options.isRequestLeaseEnabled()
+                ? new RequestLeaseManager(Duration.ofMinutes(Math.max(1, options.getRequestDurationMinutes())), clock)
+                : null;
         this.objectMapper = JsonMapper.builder()
                 .configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES, true)
                 .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
@@ -56,32 +137,89 @@ public class BeyondTrustService implements AutoCloseable {
     }
 
     public Map<String, String> fetchAllSecrets() {
-        try {
-            Map<String, String> snapshot = new LinkedHashMap<>();
-            authenticate();
+        return awaitSecrets(fetchAllSecrets(new RefreshContext(false, fetchExecutor())));
+    }
 
-            if (options.isAllManagedAccountsEnabled() || hasValue(options.getManagedAccounts())) {
-                processManagedAccounts(snapshot);
-            }
+    FetchResult fetchSnapshot() {
+        RefreshContext context = new RefreshContext(false, fetchExecutor(), true);
+        Map<String, String> entries = awaitSecrets(fetchAllSecrets(context));
+        if (context.failedItems.get() > 0 && context.failedItems.get() == context.isolatedItems.get()) {
+            throw loadingFailure(context.firstFailure.get());
+        }
 
-            if (hasValue(options.getSecretSafePaths())) {
-                processSecretSafe(snapshot);
-            }
+        return new FetchResult(entries, context.failedKeys);
+    }
+
+    private static Map<String, String> awaitSecrets(CompletableFuture<Map<String, String>> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("BeyondTrust secret loading was interrupted.", ex);
+        } catch (ExecutionException ex) {
+            throw loadingFailure(ex);
+        }
+    }
 
-            if (options.isAllSecretsEnabled()) {
-                System.out.println("[BeyondTrust] BEYONDTRUST_ALL_SECRETS_ENABLED is accepted for compatibility, but Secret Safe loading still uses BEYONDTRUST_SECRET_SAFE_PATHS.");
+    public CompletableFuture<Map<String, String>> fetchAllSecretsAsync() {
+        CompletableFuture<Map<String, String>> result = new CompletableFuture<>();
+        fetchAllSecrets(new RefreshContext(true, ForkJoinPool.commonPool())).whenComplete((snapshot, error) -> {
+            if (error != null) {
+                result.completeExceptionally(loadingFailure(error));
+            } else {
+                result.complete(snapshot);
             }
+        });
+        return result;
+    }
 
-            return snapshot;
-        } catch (Exception ex) {
-            throw new IllegalStateException("BeyondTrust secret loading failed: " + ex.getMessage(), ex);
+    public void probe() {
+        RefreshContext context = new RefreshContext(false, fetchExecutor());
+        CompletableFuture<Void> result = ensureSession(context)
+                .thenCompose(ignored -> sendAuthorized(context, () -> requestBuilder("Configuration/Version").GET().build()))
+                .thenAccept(response -> ensureSuccess(response.statusCode(), "Health probe"));
+        try {
+            result.get();
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("BeyondTrust health probe was interrupted.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = unwrap(ex);
+            throw new IllegalStateException("BeyondTrust health probe failed: " + cause.getMessage(), cause);
         }
     }
 
+    private CompletableFuture<Map<String, String>> fetchAllSecrets(RefreshContext context) {
+        Map<String, String> snapshot = new LinkedHashMap<>();
+
+        return CompletableFuture.completedFuture(null)
+                .thenCompose(ignored -> ensureSession(context))
+                .thenCompose(ignored -> options.isAllManagedAccountsEnabled() || hasValue(options.getManagedAccounts())
+                        ? processManagedAccounts(context)
+                        : CompletableFuture.completedFuture(Map.<String, String>of()))
+                .thenCompose(accountEntries -> {
+                    snapshot.putAll(accountEntries);
+                    return hasValue(options.getSecretSafePaths())
+                            ? processSecretSafe(context)
+                            : CompletableFuture.completedFuture(Map.<String, String>of());
+                })
+                .thenApply(secretSafeEntries -> {
+                    snapshot.putAll(secretSafeEntries);
+
+                    if (options.isAllSecretsEnabled()) {
+                        System.out.println("[BeyondTrust] BEYONDTRUST_ALL_SECRETS_ENABLED is accepted for compatibility, but Secret Safe loading still uses BEYONDTRUST_SECRET_SAFE_PATHS.");
+                    }
+
+                    return snapshot;
+                });
+    }
+
     HttpRequest.Builder requestBuilder(String path) {
         HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(normalizeBaseUrl(options.getApiUrl()) + path))
-                .timeout(REQUEST_TIMEOUT);
+                .timeout(requestTimeout);
 
         if (options.isUseAppUser()) {
             if (hasValue(bearerToken)) {
@@ -101,50 +239,11 @@ public class BeyondTrustService implements AutoCloseable {
     }
 
     static String parseRequestId(String payload) {
-        if (payload == null || payload.isBlank()) {
-            return "";
-        }
-
-        String trimmed = payload.trim();
-        try {
-            JsonNode root = new ObjectMapper().readTree(trimmed);
-            if (root.isNumber() || root.isTextual()) {
-                return root.asText();
-            }
-
-            String requestId = readValueIgnoreCase(root, "RequestID");
-            return requestId == null ? "" : requestId;
-        } catch (Exception ignored) {
-            return trimmed.replace("\"", "");
-        }
+        return BeyondTrustJson.parseRequestId(payload);
     }
 
     static String parseCredentialValue(String payload) {
-        if (payload == null || payload.isBlank()) {
-            return "";
-        }
-
-        String trimmed = payload.trim();
-        try {
-            JsonNode root = new ObjectMapper().readTree(trimmed);
-            if (root.isTextual()) {
-                return root.asText();
-            }
-
-            String credential = readValueIgnoreCase(root, "Credential");
-            if (credential != null) {
-                return credential;
-            }
-
-            String password = readValueIgnoreCase(root, "Password");
-            if (password != null) {
-                return password;
-            }
-        } catch (Exception ignored) {
-            return trimmed.replace("\"", "");
-        }
-
-        return trimmed.replace("\"", "");
+        return BeyondTrustJson.parseCredentialValue(payload);
     }
 
     static SSLContext createSslContext(BeyondTrustOptions options) {
@@ -169,44 +268,103 @@ public class BeyondTrustService implements AutoCloseable {
         }
     }
 
-    private void authenticate() throws Exception {
-        if (options.isUseAppUser()) {
-            loginWithOAuth();
-            return;
+    private CompletableFuture<Void> ensureSession(RefreshContext context) {
+        CompletableFuture<Void> login = new CompletableFuture<>();
+        sessionLock.lock();
+        try {
+            if (session != null && !session.isCompletedExceptionally() && (!session.isDone() || isSessionFresh())) {
+                return session;
+            }
+
+            sessionGeneration++;
+            sessionExpiresAt = null;
+            session = login;
+        } finally {
+            sessionLock.unlock();
         }
 
-        loginWithApiKey();
+        completeFrom(login, () -> authenticate(context));
+        return login;
     }
 
-    private void loginWithOAuth() throws Exception {
-        bearerToken = null;
+    private CompletableFuture<Void> reauthenticate(RefreshContext context, long rejectedGeneration) {
+        sessionLock.lock();
+        try {
+            if (rejectedGeneration == sessionGeneration && session != null && session.isDone()) {
+                session = null;
+            }
+        } finally {
+            sessionLock.unlock();
+        }
+
+        return ensureSession(context);
+    }
+
+    private boolean isSessionFresh() {
+        return sessionExpiresAt == null || clock.instant().isBefore(sessionExpiresAt);
+    }
 
+    private long currentSessionGeneration() {
+        sessionLock.lock();
+        try {
+            return sessionGeneration;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> authenticate(RefreshContext context) {
+        if (options.isUseAppUser()) {
+            return loginWithOAuth(context);
+        }
+
+        return loginWithApiKey(context);
+    }
+
+    private CompletableFuture<Void> loginWithOAuth(RefreshContext context) {
         String formBody = "grant_type=client_credentials"
                 + "&client_id=" + URLEncoder.encode(options.getClientId() == null ? "" : options.getClientId(), StandardCharsets.UTF_8)
                 + "&client_secret=" + URLEncoder.encode(options.getClientSecret() == null ? "" : options.getClientSecret(), StandardCharsets.UTF_8);
 
         HttpRequest tokenRequest = HttpRequest.newBuilder()
                 .uri(URI.create(normalizeBaseUrl(options.getApiUrl()) + "Auth/Connect/Token"))
-                .timeout(REQUEST_TIMEOUT)
+                .timeout(requestTimeout)
                 .header("Authorization", "PS-Auth")
                 .header("Content-Type", "application/x-www-form-urlencoded")
                 .POST(HttpRequest.BodyPublishers.ofString(formBody))
                 .build();
 
-        HttpResponse<String> tokenResponse = httpClient.send(tokenRequest, HttpResponse.BodyHandlers.ofString());
-        ensureSuccess(tokenResponse.statusCode(), "OAuth token request");
+        return send(context, tokenRequest).thenCompose(tokenResponse -> {
+            ensureSuccess(tokenResponse.statusCode(), "OAuth token request");
+
+            String[] tokenFields = readObjectFields(tokenResponse.body(), "access_token", "expires_in");
+            String accessToken = tokenFields[0];
+            if (accessToken == null || accessToken.isBlank()) {
+                throw new IllegalStateException("OAuth token response did not contain access_token.");
+            }
+
+            bearerToken = accessToken;
+            updateSessionExpiry(parseInteger(tokenFields[1]));
+            return postSignAppIn(context);
+        });
+    }
 
-        JsonNode tokenPayload = objectMapper.readTree(tokenResponse.body() == null ? "" : tokenResponse.body());
-        String accessToken = readValueIgnoreCase(tokenPayload, "access_token");
-        if (accessToken == null || accessToken.isBlank()) {
-            throw new IllegalStateException("OAuth token response did not contain access_token.");
+    private void updateSessionExpiry(long expiresInSeconds) {
+        if (expiresInSeconds <= 0) {
+            return;
         }
 
-        bearerToken = accessToken;
-        postSignAppIn();
+        Duration lifetime = Duration.ofSeconds(expiresInSeconds);
+        Duration skew = lifetime.dividedBy(2).compareTo(TOKEN_EXPIRY_SKEW) < 0 ? lifetime.dividedBy(2) : TOKEN_EXPIRY_SKEW;
+        sessionLock.lock();
+        try {
+            sessionExpiresAt = clock.instant().plus(lifetime).minus(skew);
+        } finally {
+            sessionLock.unlock();
+        }
     }
 
-    private void loginWithApiKey() throws Exception {
+    private CompletableFuture<Void> loginWithApiKey(RefreshContext context) {
         bearerToken = null;
         BeyondTrustAuthParsing.ParsedApiKey parsedApiKey =
                 BeyondTrustAuthParsing.parseApiKey(options.getApiKey(), options.getRunAsUser());
@@ -215,205 +373,655 @@ public class BeyondTrustService implements AutoCloseable {
             throw new IllegalStateException("Classic API authentication requires a valid BEYONDTRUST_API_KEY value.");
         }
 
-        postSignAppIn();
+        return postSignAppIn(context);
+    }
+
+    private CompletableFuture<Void> postSignAppIn(RefreshContext context) {
+        HttpRequest request = requestBuilder("Auth/SignAppin")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+
+        return send(context, request).thenAccept(response -> ensureSuccess(response.statusCode(), "Auth/SignAppin"));
     }
 
-    private void postSignAppIn() throws Exception {
-        HttpResponse<String> response = httpClient.send(
-                requestBuilder("Auth/SignAppin")
-                        .header("Content-Type", "application/json")
-                        .POST(HttpRequest.BodyPublishers.ofString("{}"))
-                        .build(),
-                HttpResponse.BodyHandlers.ofString());
+    private CompletableFuture<Map<String, String>> processManagedAccounts(RefreshContext context) {
+        return loadManagedAccounts(context).thenCompose(selectedAccounts -> {
+            if (options.isLazyManagedAccountsEnabled()) {
+                updateManagedAccountCatalog(selectedAccounts);
+                return CompletableFuture.completedFuture(Map.<String, String>of());
+            }
 
-        ensureSuccess(response.statusCode(), "Auth/SignAppin");
+            return runBounded(context, selectedAccounts,
+                    account -> isolateFailure(context, "Managed account " + managedAccountKey(account),
+                            () -> context.failedKeys.add(managedAccountKey(account)),
+                            () -> fetchManagedAccountPassword(context, account.getSystemId(), account.getAccountId())))
+                    .thenApply(passwords -> {
+                        Map<String, String> entries = new LinkedHashMap<>();
+                        for (int index = 0; index < selectedAccounts.size(); index++) {
+                            String key = managedAccountKey(selectedAccounts.get(index));
+                            if (!context.failedKeys.contains(key)) {
+                                entries.put(key, passwords.get(index));
+                            }
+                        }
+                        return entries;
+                    });
+        });
     }
 
-    private void processManagedAccounts(Map<String, String> snapshot) throws Exception {
-        HttpResponse<String> response = httpClient.send(
-                requestBuilder("ManagedAccounts").GET().build(),
-                HttpResponse.BodyHandlers.ofString());
+    private CompletableFuture<List<ManagedAccountDto>> loadManagedAccounts(RefreshContext context) {
+        if (options.getAccountCatalogTtlSeconds() <= 0) {
+            return fetchManagedAccountCatalog(context);
+        }
 
-        ensureSuccess(response.statusCode(), "ManagedAccounts");
+        AccountCatalog cached = accountCatalog;
+        if (cached == null) {
+            return fetchManagedAccountCatalog(context).thenApply(this::storeAccountCatalog);
+        }
 
-        List<ManagedAccountDto> accounts = objectMapper.readValue(
-                response.body() == null ? "[]" : response.body(),
-                new TypeReference<List<ManagedAccountDto>>() {});
+        if (!clock.instant().isBefore(cached.expiresAt)) {
+            refreshAccountCatalogInBackground();
+        }
+        return CompletableFuture.completedFuture(cached.accounts);
+    }
 
-        for (ManagedAccountDto account : filterAccounts(accounts)) {
-            String configKey = "bt.acc." + account.getSystemName().trim() + "." + account.getAccountName().trim();
-            snapshot.put(configKey, fetchManagedAccountPassword(account.getSystemId(), account.getAccountId()));
+    private void refreshAccountCatalogInBackground() {
+        if (!accountCatalogRefreshing.compareAndSet(false, true)) {
+            return;
         }
+
+        RefreshContext context = new RefreshContext(true, ForkJoinPool.commonPool());
+        CompletableFuture.completedFuture(null)
+                .thenCompose(ignored -> fetchManagedAccountCatalog(context))
+                .whenComplete((accounts, error) -> {
+                    if (error != null) {
+                        System.err.println("[BeyondTrust] Managed account catalog refresh failed. Keeping the cached catalog: " + unwrap(error).getMessage());
+                    } else {
+                        storeAccountCatalog(accounts);
+                    }
+                    accountCatalogRefreshing.set(false);
+                });
     }
 
-    private String fetchManagedAccountPassword(int systemId, int accountId) throws Exception {
-        String requestId = "";
+    private List<ManagedAccountDto> storeAccountCatalog(List<ManagedAccountDto> accounts) {
+        List<ManagedAccountDto> catalog = List.copyOf(accounts);
+        accountCatalog = new AccountCatalog(catalog, clock.instant().plusSeconds(options.getAccountCatalogTtlSeconds()));
+        return catalog;
+    }
 
-        try {
-            String payload = objectMapper.writeValueAsString(Map.of(
-                    "systemId", systemId,
-                    "accountId", accountId,
-                    "durationMinutes", 5,
-                    "reason", "TurkcellAutoFetch"));
-
-            HttpResponse<String> createResponse = httpClient.send(
-                    requestBuilder("Requests")
-                            .header("Content-Type", "application/json")
-                            .POST(HttpRequest.BodyPublishers.ofString(payload))
-                            .build(),
-                    HttpResponse.BodyHandlers.ofString());
+    private CompletableFuture<List<ManagedAccountDto>> fetchManagedAccountCatalog(RefreshContext context) {
+        List<String[]> lookups = filteredAccountLookups();
+        if (lookups == null) {
+            return decode(context, sendAuthorized(context, () -> requestBuilder("ManagedAccounts").GET().build(),
+                    streamBodyHandler(context.async)), response -> {
+                ensureSuccess(response, "ManagedAccounts");
+
+                AccountFilter filter = new AccountFilter();
+                forEachJsonItem(response.body(), ManagedAccountDto.class, filter::accept);
+                return filter.selectedAccounts();
+            });
+        }
+
+        return runBounded(context, lookups, lookup -> fetchManagedAccount(context, lookup[0], lookup[1])).thenApply(accounts -> {
+            List<ManagedAccountDto> selectedAccounts = new ArrayList<>();
+            for (int index = 0; index < lookups.size(); index++) {
+                if (accounts.get(index) != null) {
+                    selectedAccounts.add(accounts.get(index));
+                } else {
+                    System.out.println("[BeyondTrust] Managed account was requested but not returned by the API: " + lookups.get(index)[0] + "." + lookups.get(index)[1]);
+                }
+            }
+            return selectedAccounts;
+        });
+    }
+
+    private List<String[]> filteredAccountLookups() {
+        int threshold = options.getManagedAccountLookupThreshold();
+        if (threshold <= 0 || options.isAllManagedAccountsEnabled()) {
+            return null;
+        }
+
+        Set<String> requestedAccounts = new LinkedHashSet<>(splitValues(options.getManagedAccounts(), ';'));
+        if (requestedAccounts.isEmpty() || requestedAccounts.size() > threshold) {
+            return null;
+        }
+
+        List<String[]> lookups = new ArrayList<>(requestedAccounts.size());
+        for (String requestedAccount : requestedAccounts) {
+            int separator = requestedAccount.indexOf('.');
+            if (separator <= 0 || separator == requestedAccount.length() - 1 || requestedAccount.indexOf('.', separator + 1) >= 0) {
+                return null;
+            }
 
+            lookups.add(new String[] {requestedAccount.substring(0, separator), requestedAccount.substring(separator + 1)});
+        }
+        return lookups;
+    }
+
+    private CompletableFuture<ManagedAccountDto> fetchManagedAccount(RefreshContext context, String systemName, String accountName) {
+        return sendAuthorized(context, () -> requestBuilder("ManagedAccounts?systemName=" + URLEncoder.encode(systemName, StandardCharsets.UTF_8)
+                + "&accountName=" + URLEncoder.encode(accountName, StandardCharsets.UTF_8))
+                .GET()
+                .build()).thenApply(response -> {
+            if (response.statusCode() == 404) {
+                return null;
+            }
+
+            ensureSuccess(response.statusCode(), "ManagedAccounts for '" + systemName + "." + accountName + "'");
+
+            JsonNode root = readTree(response.body() == null ? "null" : response.body());
+            JsonNode item = root.isArray() ? (root.isEmpty() ? null : root.get(0)) : root;
+            return item == null || !item.isObject() ? null : objectMapper.convertValue(item, ManagedAccountDto.class);
+        });
+    }
+
+    String resolveLazyCredential(String configKey) {
+        ManagedAccountDto account = managedAccountCatalog.get(configKey);
+        if (account == null) {
+            return null;
+        }
+
+        return lazyCredentials.computeIfAbsent(configKey, ignored -> new LazyCredential()).get(account);
+    }
+
+    private void updateManagedAccountCatalog(List<ManagedAccountDto> accounts) {
+        Map<String, ManagedAccountDto> catalog = new LinkedHashMap<>();
+        for (ManagedAccountDto account : accounts) {
+            catalog.put(managedAccountKey(account), account);
+        }
+
+        managedAccountCatalog = Collections.unmodifiableMap(catalog);
+        lazyCredentials.keySet().retainAll(catalog.keySet());
+    }
+
+    private static String managedAccountKey(ManagedAccountDto account) {
+        return "bt.acc." + account.getSystemName().trim() + "." + account.getAccountName().trim();
+    }
+
+    private CompletableFuture<String> fetchManagedAccountPassword(RefreshContext context, int systemId, int accountId) {
+        if (requestLeases != null) {
+            String leasedCredential = requestLeases.credential(systemId, accountId);
+            if (leasedCredential != null) {
+                return CompletableFuture.completedFuture(leasedCredential);
+            }
+
+            String expiringRequestId = requestLeases.removeExpiring(systemId, accountId);
+            if (expiringRequestId != null) {
+                return tryCheckIn(context, expiringRequestId)
+                        .thenCompose(ignored -> requestManagedAccountPassword(context, systemId, accountId));
+            }
+        }
+
+        return requestManagedAccountPassword(context, systemId, accountId);
+    }
+
+    private CompletableFuture<String> requestManagedAccountPassword(RefreshContext context, int systemId, int accountId) {
+        String payload = writeValueAsString(Map.of(
+                "systemId", systemId,
+                "accountId", accountId,
+                "durationMinutes", options.getRequestDurationMinutes(),
+                "reason", "TurkcellAutoFetch"));
+        Instant requestedAt = clock.instant();
+        AtomicBoolean ownsRequest = new AtomicBoolean();
+
+        return sendAuthorized(context, () -> requestBuilder("Requests")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build()).thenCompose(createResponse -> {
             if (isSuccess(createResponse.statusCode())) {
-                requestId = parseRequestId(createResponse.body());
-            } else if (createResponse.statusCode() == 409 || createResponse.statusCode() == 403) {
-                requestId = findExistingRequestId(systemId, accountId);
-            } else {
-                throw new IllegalStateException("Request creation failed with status " + createResponse.statusCode() + ".");
+                ownsRequest.set(true);
+                return CompletableFuture.completedFuture(parseRequestId(createResponse.body()));
             }
 
+            if (createResponse.statusCode() == 409 || createResponse.statusCode() == 403) {
+                return findExistingRequestId(context, systemId, accountId);
+            }
+
+            throw new IllegalStateException("Request creation failed with status " + createResponse.statusCode() + ".");
+        }).thenCompose(requestId -> {
             if (!hasValue(requestId)) {
                 throw new IllegalStateException("Request ID could not be resolved for the managed account credential flow.");
             }
 
-            for (int attempt = 0; attempt < 5; attempt++) {
-                HttpResponse<String> credentialResponse = httpClient.send(
-                        requestBuilder("Credentials/" + URLEncoder.encode(requestId, StandardCharsets.UTF_8))
-                                .GET()
-                                .build(),
-                        HttpResponse.BodyHandlers.ofString());
+            return pollCredential(context, requestId, 1, clock.instant().plus(credentialPollPolicy.timeout()))
+                    .handle((credential, error) -> {
+                        if (error == null && requestLeases != null && ownsRequest.get()) {
+                            requestLeases.put(systemId, accountId, requestId, credential, requestedAt);
+                            return CompletableFuture.completedFuture(credential);
+                        }
+
+                        return releaseRequest(context, requestId)
+                                .thenCompose(ignored -> completedOrFailed(credential, error));
+                    })
+                    .thenCompose(Function.identity());
+        });
+    }
 
-                if (isSuccess(credentialResponse.statusCode())) {
-                    return parseCredentialValue(credentialResponse.body());
-                }
+    private CompletableFuture<String> pollCredential(RefreshContext context, String requestId, int attempt, Instant deadline) {
+        return sendAuthorized(context, () -> requestBuilder("Credentials/" + URLEncoder.encode(requestId, StandardCharsets.UTF_8))
+                .GET()
+                .build()).thenCompose(credentialResponse -> {
+            if (isSuccess(credentialResponse.statusCode())) {
+                return CompletableFuture.completedFuture(parseCredentialValue(credentialResponse.body()));
+            }
 
-                Thread.sleep(Duration.ofSeconds(attempt + 1).toMillis());
+            if (attempt >= credentialPollPolicy.maxAttempts()) {
+                throw new IllegalStateException("Credential retrieval failed for RequestID '" + requestId + "'.");
             }
 
-            throw new IllegalStateException("Credential retrieval failed for RequestID '" + requestId + "'.");
-        } finally {
-            if (hasValue(requestId)) {
-                tryCheckIn(requestId);
+            Duration remaining = Duration.between(clock.instant(), deadline);
+            if (remaining.isNegative() || remaining.isZero()) {
+                throw new IllegalStateException("Credential retrieval timed out for RequestID '" + requestId + "' after " + attempt + " attempt(s).");
             }
+
+            Duration backoff = credentialPollPolicy.backoff(attempt);
+            return delay(context.executor, backoff.compareTo(remaining) > 0 ? remaining : backoff)
+                    .thenCompose(ignored -> pollCredential(context, requestId, attempt + 1, deadline));
+        });
+    }
+
+    private CompletableFuture<Void> releaseRequest(RefreshContext context, String requestId) {
+        if (checkInQueue == null) {
+            return tryCheckIn(context, requestId);
         }
+
+        checkInQueue.submit(requestId);
+        return CompletableFuture.completedFuture(null);
     }
 
-    private void tryCheckIn(String requestId) {
+    private CompletableFuture<?> sendQueuedCheckIn(String requestId) {
+        return sendCheckIn(new RefreshContext(true, ForkJoinPool.commonPool()), requestId).thenApply(response -> {
+            if (!isSuccess(response.statusCode())) {
+                throw new IllegalStateException("Check-in returned status " + response.statusCode() + ".");
+            }
+            return response;
+        });
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendCheckIn(RefreshContext context, String requestId) {
         try {
-            HttpResponse<String> response = httpClient.send(
-                    requestBuilder("Requests/" + URLEncoder.encode(requestId, StandardCharsets.UTF_8) + "/Checkin")
-                            .header("Content-Type", "application/json")
-                            .PUT(HttpRequest.BodyPublishers.ofString("{\"reason\":\"Done\"}"))
-                            .build(),
-                    HttpResponse.BodyHandlers.ofString());
+            return sendAuthorized(context, () -> requestBuilder("Requests/" + URLEncoder.encode(requestId, StandardCharsets.UTF_8) + "/Checkin")
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"reason\":\"Done\"}"))
+                    .build());
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
 
-            if (!isSuccess(response.statusCode())) {
+    private CompletableFuture<Void> tryCheckIn(RefreshContext context, String requestId) {
+        return sendCheckIn(context, requestId).handle((response, error) -> {
+            if (error != null) {
+                System.out.println("[BeyondTrust] Check-in failed for RequestID '" + requestId + "': " + unwrap(error).getMessage());
+            } else if (!isSuccess(response.statusCode())) {
                 System.out.println("[BeyondTrust] Check-in failed for RequestID '" + requestId + "' with status " + response.statusCode() + ".");
             }
-        } catch (Exception ex) {
-            System.out.println("[BeyondTrust] Check-in failed for RequestID '" + requestId + "': " + ex.getMessage());
-        }
+            return null;
+        });
     }
 
-    private String findExistingRequestId(int systemId, int accountId) throws Exception {
-        HttpResponse<String> response = httpClient.send(
-                requestBuilder("Requests").GET().build(),
-                HttpResponse.BodyHandlers.ofString());
+    private CompletableFuture<String> findExistingRequestId(RefreshContext context, int systemId, int accountId) {
+        return existingRequests(context).thenApply(requests -> {
+            String requestId = requests.get(RequestLeaseManager.key(systemId, accountId));
+            return requestId == null ? "" : requestId;
+        });
+    }
+
+    private CompletableFuture<Map<Long, String>> existingRequests(RefreshContext context) {
+        CompletableFuture<Map<Long, String>> lookup = new CompletableFuture<>();
+        context.lock.lock();
+        try {
+            if (context.existingRequests != null && !context.existingRequests.isCompletedExceptionally()) {
+                return context.existingRequests;
+            }
+
+            context.existingRequests = lookup;
+        } finally {
+            context.lock.unlock();
+        }
 
-        ensureSuccess(response.statusCode(), "Requests lookup");
+        completeFrom(lookup, () -> sendAuthorized(context, () -> requestBuilder("Requests").GET().build()).thenApply(response -> {
+            ensureSuccess(response.statusCode(), "Requests lookup");
+            return indexRequests(readTree(response.body() == null ? "[]" : response.body()));
+        }));
+        return lookup;
+    }
 
-        JsonNode root = objectMapper.readTree(response.body() == null ? "[]" : response.body());
+    private static Map<Long, String> indexRequests(JsonNode root) {
         if (!root.isArray()) {
-            return "";
+            return Map.of();
         }
 
+        Map<Long, String> requests = new HashMap<>(Math.max(16, (int) (root.size() / 0.75f) + 1));
         for (JsonNode item : root) {
-            int currentSystemId = readIntegerIgnoreCase(item, "SystemID");
-            int currentAccountId = readIntegerIgnoreCase(item, "AccountID");
-
-            if (currentSystemId == systemId && currentAccountId == accountId) {
-                String requestId = readValueIgnoreCase(item, "RequestID");
-                return requestId == null ? "" : requestId;
+            String requestId = readValueIgnoreCase(item, "RequestID");
+            if (requestId != null) {
+                requests.putIfAbsent(RequestLeaseManager.key(
+                        readIntegerIgnoreCase(item, "SystemID"),
+                        readIntegerIgnoreCase(item, "AccountID")), requestId);
             }
         }
+        return requests;
+    }
+
+    private CompletableFuture<Map<String, String>> processSecretSafe(RefreshContext context) {
+        List<String> paths = splitValues(options.getSecretSafePaths());
 
-        return "";
+        return runBounded(context, paths, path -> isolateFailure(context, "Secret Safe path '" + path + "'",
+                () -> recordFailedSecretSafePath(context, path),
+                () -> fetchSecretSafePath(context, path))).thenApply(pathEntries -> {
+            Map<String, String> entries = new LinkedHashMap<>();
+            for (Map<String, String> pathEntry : pathEntries) {
+                if (pathEntry != null) {
+                    entries.putAll(pathEntry);
+                }
+            }
+            return entries;
+        });
     }
 
-    private void processSecretSafe(Map<String, String> snapshot) throws Exception {
-        for (String path : splitValues(options.getSecretSafePaths())) {
-            HttpResponse<String> response = httpClient.send(
-                    requestBuilder("Secrets-Safe/Secrets?Path=" + URLEncoder.encode(path, StandardCharsets.UTF_8))
-                            .GET()
-                            .build(),
-                    HttpResponse.BodyHandlers.ofString());
+    private void recordFailedSecretSafePath(RefreshContext context, String path) {
+        SecretSafeFolder previous = secretSafeFolders.get(path);
+        if (previous != null) {
+            context.failedKeys.addAll(previous.entries.keySet());
+        }
+    }
 
-            ensureSuccess(response.statusCode(), "Secrets-Safe for path '" + path + "'");
+    private CompletableFuture<Map<String, String>> fetchSecretSafePath(RefreshContext context, String path) {
+        SecretSafeFolder previous = secretSafeFolders.get(path);
+        return decode(context, sendAuthorized(context, () -> secretSafeRequest(path, previous), streamBodyHandler(context.async)), response -> {
+            if (response.statusCode() == 304 && previous != null) {
+                return previous.entries;
+            }
 
-            List<SecretSafeItemDto> items = objectMapper.readValue(
-                    response.body() == null ? "[]" : response.body(),
-                    new TypeReference<List<SecretSafeItemDto>>() {});
+            ensureSuccess(response, "Secrets-Safe for path '" + path + "'");
 
-            for (SecretSafeItemDto item : items) {
+            MessageDigest digest = sha256();
+            Map<String, String> entries = new LinkedHashMap<>();
+            forEachJsonItem(response.body() == null ? null : new DigestInputStream(response.body(), digest), SecretSafeItemDto.class, item -> {
                 String folder = hasValue(item.getFolder()) ? item.getFolder().trim() : path;
                 String title = hasValue(item.getTitle()) ? item.getTitle().trim() : "Untitled";
                 String baseKey = "bt.safe." + folder + "." + title;
 
-                snapshot.put(baseKey + ".password", item.getPassword() == null ? "" : item.getPassword());
+                entries.put(baseKey + ".password", item.getPassword() == null ? "" : item.getPassword());
 
                 String username = hasValue(item.getUsername())
                         ? item.getUsername().trim()
                         : (hasValue(item.getAccount()) ? item.getAccount().trim() : null);
 
                 if (hasValue(username)) {
-                    snapshot.put(baseKey + ".username", username);
+                    entries.put(baseKey + ".username", username);
                 }
+            });
+
+            byte[] contentHash = digest.digest();
+            Map<String, String> folderEntries = previous != null && MessageDigest.isEqual(previous.contentHash, contentHash)
+                    ? previous.entries
+                    : Collections.unmodifiableMap(entries);
+            secretSafeFolders.put(path, new SecretSafeFolder(
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    contentHash,
+                    folderEntries));
+            return folderEntries;
+        });
+    }
+
+    private HttpRequest secretSafeRequest(String path, SecretSafeFolder previous) {
+        HttpRequest.Builder builder = requestBuilder("Secrets-Safe/Secrets?Path=" + URLEncoder.encode(path, StandardCharsets.UTF_8)).GET();
+        if (previous != null && previous.etag != null) {
+            builder.header("If-None-Match", previous.etag);
+        }
+        if (previous != null && previous.lastModified != null) {
+            builder.header("If-Modified-Since", previous.lastModified);
+        }
+        return builder.build();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendAuthorized(RefreshContext context, Supplier<HttpRequest> requestFactory) {
+        return sendAuthorized(context, requestFactory, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendAuthorized(
+            RefreshContext context,
+            Supplier<HttpRequest> requestFactory,
+            HttpResponse.BodyHandler<T> bodyHandler) {
+        long generation = currentSessionGeneration();
+
+        return send(context, requestFactory.get(), bodyHandler).thenCompose(response -> {
+            if (response.statusCode() != 401) {
+                return CompletableFuture.completedFuture(response);
             }
+
+            closeBody(response);
+            return reauthenticate(context, generation).thenCompose(ignored -> send(context, requestFactory.get(), bodyHandler));
+        });
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(RefreshContext context, HttpRequest request) {
+        return send(context, request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(RefreshContext context, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (context.async) {
+            return httpClient.sendAsync(request, bodyHandler);
+        }
+
+        try {
+            return CompletableFuture.completedFuture(httpClient.send(request, bodyHandler));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(ex);
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(ex);
         }
     }
 
-    private List<ManagedAccountDto> filterAccounts(List<ManagedAccountDto> allAccounts) {
-        if (options.isAllManagedAccountsEnabled()) {
-            return allAccounts;
+    static HttpResponse.BodyHandler<InputStream> streamBodyHandler(boolean async) {
+        if (!async) {
+            return HttpResponse.BodyHandlers.ofInputStream();
         }
 
-        List<String> requestedAccounts = splitValues(options.getManagedAccounts(), ';');
-        if (requestedAccounts.isEmpty()) {
-            return Collections.emptyList();
+        return responseInfo -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), ByteArrayInputStream::new);
+    }
+
+    private static <R> CompletableFuture<R> decode(
+            RefreshContext context,
+            CompletableFuture<HttpResponse<InputStream>> response,
+            Function<HttpResponse<InputStream>, R> decoder) {
+        Function<HttpResponse<InputStream>, R> closingDecoder = received -> {
+            try {
+                return decoder.apply(received);
+            } finally {
+                closeBody(received);
+            }
+        };
+
+        return context.async ? response.thenApplyAsync(closingDecoder, context.executor) : response.thenApply(closingDecoder);
+    }
+
+    private <T> void forEachJsonItem(InputStream body, Class<T> type, Consumer<T> action) {
+        if (body == null) {
+            return;
         }
 
-        Set<String> requestedAccountSet = new HashSet<>(requestedAccounts);
-        List<ManagedAccountDto> filteredAccounts = new ArrayList<>();
+        try (MappingIterator<T> items = objectMapper.readerFor(type).readValues(body)) {
+            while (items.hasNextValue()) {
+                action.accept(items.nextValue());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 
-        for (ManagedAccountDto account : allAccounts) {
-            String key = account.getSystemName().trim() + "." + account.getAccountName().trim();
-            if (requestedAccountSet.contains(key)) {
-                filteredAccounts.add(account);
+    private static void ensureSuccess(HttpResponse<InputStream> response, String operation) {
+        if (!isSuccess(response.statusCode())) {
+            closeBody(response);
+            ensureSuccess(response.statusCode(), operation);
+        }
+    }
+
+    private static void closeBody(HttpResponse<?> response) {
+        if (response.body() instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
             }
         }
+    }
 
-        Set<String> returnedAccountSet = new HashSet<>();
-        for (ManagedAccountDto account : filteredAccounts) {
-            returnedAccountSet.add(account.getSystemName().trim() + "." + account.getAccountName().trim());
+    private static <T> CompletableFuture<T> isolateFailure(
+            RefreshContext context,
+            String itemName,
+            Runnable recordFailure,
+            Supplier<CompletableFuture<T>> task) {
+
+        CompletableFuture<T> started;
+        try {
+            started = task.get();
+        } catch (RuntimeException ex) {
+            started = CompletableFuture.failedFuture(ex);
         }
 
-        for (String requestedAccount : requestedAccountSet) {
-            if (!returnedAccountSet.contains(requestedAccount)) {
-                System.out.println("[BeyondTrust] Managed account was requested but not returned by the API: " + requestedAccount);
+        if (!context.isolateFailures) {
+            return started;
+        }
+
+        context.isolatedItems.incrementAndGet();
+        return started.handle((value, error) -> {
+            if (error == null) {
+                return value;
             }
+
+            Throwable cause = unwrap(error);
+            context.firstFailure.compareAndSet(null, cause);
+            context.failedItems.incrementAndGet();
+            recordFailure.run();
+            System.err.println("[BeyondTrust] " + itemName + " failed, keeping its previous value(s): " + cause.getMessage());
+            return null;
+        });
+    }
+
+    private <T, R> CompletableFuture<List<R>> runBounded(
+            RefreshContext context,
+            List<T> items,
+            Function<T, CompletableFuture<R>> task) {
+
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        BoundedRun<T, R> run = new BoundedRun<>(context.executor, items, task);
+        int workers = Math.min(Math.max(1, options.getFetchConcurrency()), items.size());
+        for (int worker = 0; worker < workers; worker++) {
+            run.startNext();
         }
 
-        return filteredAccounts;
+        return run.result;
     }
 
-    private static HttpClient createHttpClient(BeyondTrustOptions options) {
+    private ExecutorService fetchExecutor() {
+        executorLock.lock();
+        try {
+            if (fetchExecutor == null) {
+                fetchExecutor = BeyondTrustThreads.newExecutor("BeyondTrust-Fetch-", options.getFetchConcurrency(),
+                        options.isVirtualThreadsEnabled());
+            }
+
+            return fetchExecutor;
+        } finally {
+            executorLock.unlock();
+        }
+    }
+
+    private JsonNode readTree(String content) {
+        try {
+            return objectMapper.readTree(content);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex.getMessage(), ex);
+        }
+    }
+
+
+    private static String[] readObjectFields(String content, String... fieldNames) {
+        try {
+            return BeyondTrustJson.readObjectFields(content, fieldNames);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex.getMessage(), ex);
+        }
+    }
+
+    private String writeValueAsString(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex.getMessage(), ex);
+        }
+    }
+
+    private final class AccountFilter {
+        private final boolean allAccounts = options.isAllManagedAccountsEnabled();
+        private final Set<String> requestedAccounts = allAccounts
+                ? Collections.emptySet()
+                : new LinkedHashSet<>(splitValues(options.getManagedAccounts(), ';'));
+        private final Set<String> returnedAccounts = new HashSet<>();
+        private final List<ManagedAccountDto> selectedAccounts = new ArrayList<>();
+
+        private void accept(ManagedAccountDto account) {
+            if (allAccounts) {
+                selectedAccounts.add(account);
+                return;
+            }
+
+            String key = account.getSystemName().trim() + "." + account.getAccountName().trim();
+            if (requestedAccounts.contains(key)) {
+                selectedAccounts.add(account);
+                returnedAccounts.add(key);
+            }
+        }
+
+        private List<ManagedAccountDto> selectedAccounts() {
+            for (String requestedAccount : requestedAccounts) {
+                if (!returnedAccounts.contains(requestedAccount)) {
+                    System.out.println("[BeyondTrust] Managed account was requested but not returned by the API: " + requestedAccount);
+                }
+            }
+
+            return selectedAccounts;
+        }
+    }
+
+    static ExecutorService createHttpExecutor(BeyondTrustOptions options) {
+        if (options.getHttpExecutor() != null || !options.isVirtualThreadsEnabled() || !BeyondTrustThreads.virtualThreadsSupported()) {
+            return null;
+        }
+
+        return BeyondTrustThreads.newExecutor("BeyondTrust-Http-", 1, true);
+    }
+
+    static HttpClient createHttpClient(BeyondTrustOptions options, Executor ownedHttpExecutor) {
         CookieManager cookieManager = new CookieManager();
         cookieManager.setCookiePolicy(CookiePolicy.ACCEPT_ALL);
 
         HttpClient.Builder builder = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(REQUEST_TIMEOUT)
+                .version(options.getHttpVersion() == null ? HttpClient.Version.HTTP_1_1 : options.getHttpVersion())
+                .connectTimeout(Duration.ofSeconds(Math.max(1, options.getConnectTimeoutSeconds())))
                 .cookieHandler(cookieManager);
 
+        if (options.getHttpExecutor() != null) {
+            builder.executor(options.getHttpExecutor());
+        } else if (ownedHttpExecutor != null) {
+            builder.executor(ownedHttpExecutor);
+        }
+
         SSLContext sslContext = createSslContext(options);
         if (sslContext != null) {
             builder.sslContext(sslContext);
@@ -549,7 +1157,10 @@ public class BeyondTrustService implements AutoCloseable {
     }
 
     private static int readIntegerIgnoreCase(JsonNode node, String propertyName) {
-        String value = readValueIgnoreCase(node, propertyName);
+        return parseInteger(readValueIgnoreCase(node, propertyName));
+    }
+
+    private static int parseInteger(String value) {
         if (value == null || value.isBlank()) {
             return -1;
         }
@@ -563,6 +1174,299 @@ public class BeyondTrustService implements AutoCloseable {
 
     @Override
     public void close() {
+        closeLock.lock();
+        try {
+            if (requestLeases != null && requestLeases.size() > 0) {
+                releaseLeases();
+            }
+
+            if (checkInQueue != null) {
+                checkInQueue.drain(CHECKIN_DRAIN_TIMEOUT);
+            }
+
+            executorLock.lock();
+            try {
+                if (fetchExecutor != null) {
+                    fetchExecutor.shutdownNow();
+                    fetchExecutor = null;
+                }
+            } finally {
+                executorLock.unlock();
+            }
+
+            sessionLock.lock();
+            try {
+                session = null;
+                sessionExpiresAt = null;
+                bearerToken = null;
+            } finally {
+                sessionLock.unlock();
+            }
+
+            if (ownsHttpClient && httpClient instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    System.out.println("[BeyondTrust] HTTP client could not be closed cleanly: " + ex.getMessage());
+                }
+            }
+
+            if (ownedHttpExecutor != null) {
+                ownedHttpExecutor.shutdown();
+            }
+        } finally {
+            closeLock.unlock();
+        }
+    }
+
+    private void releaseLeases() {
+        RefreshContext context = new RefreshContext(false, fetchExecutor());
+        List<CompletableFuture<Void>> releases = new ArrayList<>();
+        for (String requestId : requestLeases.removeAll()) {
+            releases.add(releaseRequest(context, requestId));
+        }
+
+        try {
+            CompletableFuture.allOf(releases.toArray(new CompletableFuture<?>[0]))
+                    .get(CHECKIN_DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex) {
+            System.out.println("[BeyondTrust] Leased requests could not be checked in cleanly: " + unwrap(ex).getMessage());
+        }
+    }
+
+    private static IllegalStateException loadingFailure(Throwable error) {
+        Throwable cause = unwrap(error);
+        return new IllegalStateException("BeyondTrust secret loading failed: " + cause.getMessage(), cause);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException) && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static <T> void completeFrom(CompletableFuture<T> target, Supplier<CompletableFuture<T>> source) {
+        CompletableFuture<T> started;
+        try {
+            started = source.get();
+        } catch (RuntimeException ex) {
+            started = CompletableFuture.failedFuture(ex);
+        }
+
+        started.whenComplete((value, error) -> {
+            if (error == null) {
+                target.complete(value);
+            } else {
+                target.completeExceptionally(unwrap(error));
+            }
+        });
+    }
+
+    private static <T> CompletableFuture<T> completedOrFailed(T value, Throwable error) {
+        return error == null ? CompletableFuture.completedFuture(value) : CompletableFuture.failedFuture(unwrap(error));
+    }
+
+    private static CompletableFuture<Void> delay(Executor executor, Duration duration) {
+        CompletableFuture<Void> delayed = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(duration.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            try {
+                executor.execute(() -> delayed.complete(null));
+            } catch (RejectedExecutionException ex) {
+                delayed.completeExceptionally(ex);
+            }
+        });
+        return delayed;
+    }
+
+    private final class LazyCredential {
+        private final ReentrantLock lock = new ReentrantLock();
+        private String value;
+        private Instant expiresAt;
+        private Instant retryAt;
+        private int failures;
+        private CompletableFuture<String> loading;
+
+        private String get(ManagedAccountDto account) {
+            CompletableFuture<String> load;
+            String stale;
+            boolean owner = false;
+            lock.lock();
+            try {
+                Instant now = clock.instant();
+                if (value != null && now.isBefore(expiresAt)) {
+                    return value;
+                }
+
+                if (retryAt != null && now.isBefore(retryAt)) {
+                    return value;
+                }
+
+                if (loading != null && value != null) {
+                    return value;
+                }
+
+                if (loading == null) {
+                    loading = new CompletableFuture<>();
+                    owner = true;
+                }
+                load = loading;
+                stale = value;
+            } finally {
+                lock.unlock();
+            }
+
+            if (owner) {
+                CompletableFuture<String> fetched = new CompletableFuture<>();
+                completeFrom(fetched, () -> {
+                    RefreshContext context = new RefreshContext(false, fetchExecutor());
+                    return ensureSession(context)
+                            .thenCompose(ignored -> fetchManagedAccountPassword(context, account.getSystemId(), account.getAccountId()));
+                });
+                completeFrom(load, () -> fetched.handle((loaded, error) -> record(account, loaded, error)));
+            }
+
+            try {
+                return load.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return stale;
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("On-demand credential load failed for " + managedAccountKey(account) + ".", unwrap(ex));
+            }
+        }
+
+        private String record(ManagedAccountDto account, String loaded, Throwable error) {
+            lock.lock();
+            try {
+                loading = null;
+                if (error == null) {
+                    value = loaded;
+                    expiresAt = clock.instant().plusSeconds(Math.max(1, options.getLazyCredentialTtlSeconds()));
+                    retryAt = null;
+                    failures = 0;
+                    return value;
+                }
+
+                failures++;
+                Duration retryDelay = retryDelay();
+                retryAt = clock.instant().plus(retryDelay);
+                System.err.println("[BeyondTrust] On-demand credential load failed for " + managedAccountKey(account) + ": "
+                        + unwrap(error).getMessage() + ". Next attempt in " + retryDelay.toSeconds() + "s.");
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Duration retryDelay() {
+            Duration maxDelay = Duration.ofSeconds(Math.max(LAZY_CREDENTIAL_RETRY_DELAY.toSeconds(), options.getLazyCredentialTtlSeconds()));
+            Duration delay = LAZY_CREDENTIAL_RETRY_DELAY.multipliedBy(1L << Math.min(failures - 1, 20));
+            return delay.compareTo(maxDelay) > 0 ? maxDelay : delay;
+        }
+    }
+
+    private static final class AccountCatalog {
+        private final List<ManagedAccountDto> accounts;
+        private final Instant expiresAt;
+
+        private AccountCatalog(List<ManagedAccountDto> accounts, Instant expiresAt) {
+            this.accounts = accounts;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class SecretSafeFolder {
+        private final String etag;
+        private final String lastModified;
+        private final byte[] contentHash;
+        private final Map<String, String> entries;
+
+        private SecretSafeFolder(String etag, String lastModified, byte[] contentHash, Map<String, String> entries) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+            this.entries = entries;
+        }
+    }
+
+    private static final class RefreshContext {
+        private final boolean async;
+        private final Executor executor;
+        private final boolean isolateFailures;
+        private final Set<String> failedKeys = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger isolatedItems = new AtomicInteger();
+        private final AtomicInteger failedItems = new AtomicInteger();
+        private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private CompletableFuture<Map<Long, String>> existingRequests;
+
+        private RefreshContext(boolean async, Executor executor) {
+            this(async, executor, false);
+        }
+
+        private RefreshContext(boolean async, Executor executor, boolean isolateFailures) {
+            this.async = async;
+            this.executor = executor;
+            this.isolateFailures = isolateFailures;
+        }
+    }
+
+    private static final class BoundedRun<T, R> {
+        private final Executor executor;
+        private final List<T> items;
+        private final Function<T, CompletableFuture<R>> task;
+        private final List<R> results;
+        private final AtomicInteger cursor = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<List<R>> result = new CompletableFuture<>();
+
+        private BoundedRun(Executor executor, List<T> items, Function<T, CompletableFuture<R>> task) {
+            this.executor = executor;
+            this.items = items;
+            this.task = task;
+            this.results = new ArrayList<>(Collections.nCopies(items.size(), null));
+            this.remaining = new AtomicInteger(items.size());
+        }
+
+        private void startNext() {
+            try {
+                executor.execute(this::runNext);
+            } catch (RejectedExecutionException ex) {
+                result.completeExceptionally(ex);
+            }
+        }
+
+        private void runNext() {
+            int index = cursor.getAndIncrement();
+            if (index >= items.size() || result.isDone()) {
+                return;
+            }
+
+            CompletableFuture<R> started;
+            try {
+                started = task.apply(items.get(index));
+            } catch (RuntimeException ex) {
+                started = CompletableFuture.failedFuture(ex);
+            }
+
+            started.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(unwrap(error));
+                    return;
+                }
+
+                results.set(index, value);
+                if (remaining.decrementAndGet() == 0) {
+                    result.complete(results);
+                } else {
+                    startNext();
+                }
+            });
+        }
     }
 
     private static final class CompositeX509TrustManager implements X509TrustManager {
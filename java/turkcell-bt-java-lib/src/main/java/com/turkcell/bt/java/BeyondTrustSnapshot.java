@@ -0,0 +1,133 @@
+package com.turkcell.bt.java;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+public final class BeyondTrustSnapshot {
+    private static final SecretKeySpec CONTENT_HASH_KEY = new SecretKeySpec(randomKey(), "HmacSHA256");
+
+    static final BeyondTrustSnapshot EMPTY = new BeyondTrustSnapshot(Collections.emptyMap());
+
+    private final long generation;
+    private final long contentHash;
+    private final Map<String, String> entries;
+    private final NavigableMap<String, String> sortedEntries;
+    private final Properties properties;
+    private final Set<String> staleKeys;
+
+    BeyondTrustSnapshot(Map<String, String> entries) {
+        this(entries, Set.of(), 0);
+    }
+
+    BeyondTrustSnapshot(Map<String, String> entries, Set<String> staleKeys, long generation) {
+        this.generation = generation;
+        this.entries = Collections.unmodifiableMap(entries);
+        this.staleKeys = Set.copyOf(staleKeys);
+        this.sortedEntries = Collections.unmodifiableNavigableMap(new TreeMap<>(entries));
+        this.properties = new SnapshotProperties(this.entries);
+        this.contentHash = contentHash(sortedEntries);
+    }
+
+    public long getGeneration() { return generation; }
+    public long getContentHash() { return contentHash; }
+    public Set<String> getStaleKeys() { return staleKeys; }
+    public Map<String, String> getPropertyMap() { return entries; }
+    public int size() { return entries.size(); }
+
+    public String getProperty(String key) {
+        return entries.get(key);
+    }
+
+    public String getProperty(String key, String defaultValue) {
+        String value = entries.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public Map<String, String> getProperties(Collection<String> keys) {
+        Map<String, String> values = new LinkedHashMap<>(Math.max(16, (int) (keys.size() / 0.75f) + 1));
+        for (String key : keys) {
+            String value = entries.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    public NavigableMap<String, String> getPropertiesByPrefix(String prefix) {
+        if (Objects.requireNonNull(prefix, "prefix").isEmpty()) {
+            return sortedEntries;
+        }
+
+        String upperBound = prefixUpperBound(prefix);
+        return upperBound == null
+                ? sortedEntries.tailMap(prefix, true)
+                : sortedEntries.subMap(prefix, true, upperBound, false);
+    }
+
+    public Map<String, String> getSubtree(String path) {
+        String prefix = Objects.requireNonNull(path, "path").isEmpty() || path.endsWith(".") ? path : path + ".";
+        NavigableMap<String, String> matches = getPropertiesByPrefix(prefix);
+        Map<String, String> subtree = new LinkedHashMap<>(Math.max(16, (int) (matches.size() / 0.75f) + 1));
+        for (Map.Entry<String, String> entry : matches.entrySet()) {
+            subtree.put(entry.getKey().substring(prefix.length()), entry.getValue());
+        }
+        return Collections.unmodifiableMap(subtree);
+    }
+
+    Properties properties() {
+        return properties;
+    }
+
+    private static long contentHash(NavigableMap<String, String> entries) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(CONTENT_HASH_KEY);
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                update(mac, entry.getKey());
+                update(mac, entry.getValue());
+            }
+            return ByteBuffer.wrap(mac.doFinal()).getLong();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available.", ex);
+        }
+    }
+
+    private static void update(Mac mac, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(value == null ? -1 : bytes.length).array());
+        mac.update(bytes);
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private static String prefixUpperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+
+        if (end == 0) {
+            return null;
+        }
+
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+}
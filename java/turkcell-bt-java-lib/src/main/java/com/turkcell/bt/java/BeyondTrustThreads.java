@@ -0,0 +1,28 @@
+package com.turkcell.bt.java;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class BeyondTrustThreads {
+    private BeyondTrustThreads() {
+    }
+
+    static boolean virtualThreadsSupported() {
+        return false;
+    }
+
+    static ThreadFactory threadFactory(String namePrefix, boolean virtual) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    static ExecutorService newExecutor(String namePrefix, int threads, boolean virtual) {
+        return Executors.newFixedThreadPool(Math.max(1, threads), threadFactory(namePrefix, virtual));
+    }
+}
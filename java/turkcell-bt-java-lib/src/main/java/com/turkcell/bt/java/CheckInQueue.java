@@ -0,0 +1,93 @@
+package com.turkcell.bt.java;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+final class CheckInQueue {
+
+    @FunctionalInterface
+    interface Sender {
+        CompletableFuture<?> checkIn(String requestId);
+    }
+
+    private final Sender sender;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Set<CompletableFuture<Void>> pending = ConcurrentHashMap.newKeySet();
+
+    CheckInQueue(Sender sender, int maxAttempts, Duration retryDelay) {
+        this.sender = sender;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = retryDelay;
+    }
+
+    void submit(String requestId) {
+        CompletableFuture<Void> checkIn = new CompletableFuture<>();
+        pending.add(checkIn);
+        attempt(requestId, 1, checkIn);
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    boolean drain(Duration timeout) {
+        CompletableFuture<?>[] inFlight = pending.toArray(new CompletableFuture<?>[0]);
+        if (inFlight.length == 0) {
+            return true;
+        }
+
+        try {
+            CompletableFuture.allOf(inFlight).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException ex) {
+            return true;
+        } catch (TimeoutException ex) {
+            System.out.println("[BeyondTrust] " + pending.size() + " check-in(s) were still pending after " + timeout.toSeconds() + "s.");
+            return false;
+        }
+    }
+
+    private void attempt(String requestId, int attempt, CompletableFuture<Void> checkIn) {
+        CompletableFuture<?> sent;
+        try {
+            sent = sender.checkIn(requestId);
+        } catch (RuntimeException ex) {
+            sent = CompletableFuture.failedFuture(ex);
+        }
+
+        sent.whenComplete((ignored, error) -> {
+            if (error == null) {
+                finish(checkIn);
+                return;
+            }
+
+            if (attempt >= maxAttempts) {
+                System.out.println("[BeyondTrust] Check-in failed for RequestID '" + requestId + "' after " + attempt + " attempt(s): " + unwrap(error).getMessage());
+                finish(checkIn);
+                return;
+            }
+
+            CompletableFuture.delayedExecutor(retryDelay.toMillis() * attempt, TimeUnit.MILLISECONDS)
+                    .execute(() -> attempt(requestId, attempt + 1, checkIn));
+        });
+    }
+
+    private void finish(CompletableFuture<Void> checkIn) {
+        pending.remove(checkIn);
+        checkIn.complete(null);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,47 @@
+package com.turkcell.bt.java;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+final class CredentialPollPolicy {
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final Duration timeout;
+    private final DoubleSupplier random;
+
+    CredentialPollPolicy(int maxAttempts, Duration initialDelay, Duration maxDelay, Duration timeout, DoubleSupplier random) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialDelayMillis = Math.max(1, initialDelay.toMillis());
+        this.maxDelayMillis = Math.max(this.initialDelayMillis, maxDelay.toMillis());
+        this.timeout = timeout;
+        this.random = random;
+    }
+
+    static CredentialPollPolicy fromOptions(BeyondTrustOptions options) {
+        return new CredentialPollPolicy(
+                options.getCredentialPollAttempts(),
+                Duration.ofMillis(options.getCredentialPollInitialDelayMillis()),
+                Duration.ofMillis(options.getCredentialPollMaxDelayMillis()),
+                Duration.ofSeconds(options.getCredentialPollTimeoutSeconds()),
+                () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    int maxAttempts() {
+        return maxAttempts;
+    }
+
+    Duration timeout() {
+        return timeout;
+    }
+
+    Duration backoff(int completedAttempts) {
+        int exponent = Math.min(Math.max(0, completedAttempts - 1), 30);
+        long ceiling = initialDelayMillis > (maxDelayMillis >> exponent)
+                ? maxDelayMillis
+                : initialDelayMillis << exponent;
+        long floor = ceiling / 2;
+        return Duration.ofMillis(floor + (long) (random.getAsDouble() * (ceiling - floor)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.turkcell.bt.java;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+final class FetchResult {
+    private final Map<String, String> entries;
+    private final Set<String> failedKeys;
+
+    FetchResult(Map<String, String> entries, Collection<String> failedKeys) {
+        this.entries = entries == null ? Map.of() : entries;
+        this.failedKeys = Set.copyOf(failedKeys);
+    }
+
+    static FetchResult complete(Map<String, String> entries) {
+        return new FetchResult(entries, Set.of());
+    }
+
+    Map<String, String> entries() {
+        return entries;
+    }
+
+    Set<String> failedKeys() {
+        return failedKeys;
+    }
+
+    boolean isPartial() {
+        return !failedKeys.isEmpty();
+    }
+
+    boolean isFailed(String key) {
+        return failedKeys.contains(key);
+    }
+}
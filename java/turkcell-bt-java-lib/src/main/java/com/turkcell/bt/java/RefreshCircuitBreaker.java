@@ -0,0 +1,63 @@
+package com.turkcell.bt.java;
+
+final class RefreshCircuitBreaker {
+    private static final int MAX_BACKOFF_EXPONENT = 30;
+
+    private final int failureThreshold;
+    private final long maxBackoffSeconds;
+    private BeyondTrustCircuitState state = BeyondTrustCircuitState.CLOSED;
+    private int consecutiveFailures;
+
+    RefreshCircuitBreaker(int failureThreshold, long maxBackoffSeconds) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.maxBackoffSeconds = Math.max(1, maxBackoffSeconds);
+    }
+
+    static RefreshCircuitBreaker fromOptions(BeyondTrustOptions options) {
+        return new RefreshCircuitBreaker(options.getCircuitFailureThreshold(), options.getCircuitMaxBackoffSeconds());
+    }
+
+    synchronized BeyondTrustCircuitState state() {
+        return state;
+    }
+
+    synchronized int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    synchronized boolean tryHalfOpen() {
+        if (state != BeyondTrustCircuitState.OPEN) {
+            return false;
+        }
+
+        state = BeyondTrustCircuitState.HALF_OPEN;
+        return true;
+    }
+
+    synchronized BeyondTrustCircuitState recordSuccess() {
+        BeyondTrustCircuitState previousState = state;
+        state = BeyondTrustCircuitState.CLOSED;
+        consecutiveFailures = 0;
+        return previousState;
+    }
+
+    synchronized BeyondTrustCircuitState recordFailure() {
+        BeyondTrustCircuitState previousState = state;
+        consecutiveFailures++;
+        if (state == BeyondTrustCircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = BeyondTrustCircuitState.OPEN;
+        }
+        return previousState;
+    }
+
+    synchronized long nextDelaySeconds(long intervalSeconds) {
+        if (state != BeyondTrustCircuitState.OPEN) {
+            return intervalSeconds;
+        }
+
+        int exponent = Math.min(MAX_BACKOFF_EXPONENT, consecutiveFailures - failureThreshold + 1);
+        long cap = Math.max(intervalSeconds, maxBackoffSeconds);
+        long backoff = intervalSeconds > (cap >> exponent) ? cap : intervalSeconds << exponent;
+        return Math.min(cap, backoff);
+    }
+}
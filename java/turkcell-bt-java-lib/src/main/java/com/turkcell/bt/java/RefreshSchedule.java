@@ -0,0 +1,94 @@
+package com.turkcell.bt.java;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+final class RefreshSchedule {
+    private static final int MAX_JITTER_PERCENT = 50;
+
+    private final BeyondTrustRefreshSpread spread;
+    private final int jitterPercent;
+    private final long instanceHash;
+    private final LongSupplier epochSeconds;
+    private final DoubleSupplier random;
+
+    RefreshSchedule(BeyondTrustRefreshSpread spread, int jitterPercent, String instanceId, LongSupplier epochSeconds, DoubleSupplier random) {
+        boolean hasInstanceId = instanceId != null && !instanceId.isBlank();
+        if (spread == BeyondTrustRefreshSpread.INSTANCE && !hasInstanceId) {
+            this.spread = BeyondTrustRefreshSpread.RANDOM;
+        } else {
+            this.spread = spread == null ? BeyondTrustRefreshSpread.NONE : spread;
+        }
+        this.jitterPercent = Math.max(0, Math.min(MAX_JITTER_PERCENT, jitterPercent));
+        this.instanceHash = hasInstanceId ? hash(instanceId.trim()) : 0;
+        this.epochSeconds = epochSeconds;
+        this.random = random;
+    }
+
+    static RefreshSchedule fromOptions(BeyondTrustOptions options) {
+        String instanceId = options.getInstanceId();
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = BeyondTrustOptions.readString("HOSTNAME");
+        }
+
+        return new RefreshSchedule(
+                options.getRefreshSpread(),
+                options.getRefreshJitterPercent(),
+                instanceId,
+                () -> System.currentTimeMillis() / 1000,
+                () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    BeyondTrustRefreshSpread spread() {
+        return spread;
+    }
+
+    long initialDelaySeconds(long intervalSeconds) {
+        long delay = switch (spread) {
+            case RANDOM -> intervalSeconds / 2 + (long) (random.getAsDouble() * intervalSeconds);
+            case INSTANCE -> {
+                long now = epochSeconds.getAsLong();
+                long earliest = now + intervalSeconds / 2;
+                yield earliest - now + Math.floorMod(slot(intervalSeconds) - earliest, intervalSeconds);
+            }
+            default -> intervalSeconds;
+        };
+        return jitter(delay);
+    }
+
+    long nextDelaySeconds(long intervalSeconds, long delaySeconds) {
+        long delay = delaySeconds;
+        if (spread == BeyondTrustRefreshSpread.INSTANCE) {
+            long offset = Math.floorMod(slot(intervalSeconds) - (epochSeconds.getAsLong() + delay), intervalSeconds);
+            delay += offset > intervalSeconds / 2 ? offset - intervalSeconds : offset;
+        }
+        return jitter(delay);
+    }
+
+    private long slot(long intervalSeconds) {
+        return Math.floorMod(instanceHash, intervalSeconds);
+    }
+
+    private long jitter(long delaySeconds) {
+        long delay = delaySeconds;
+        if (jitterPercent > 0) {
+            long range = delaySeconds * jitterPercent / 100;
+            delay += Math.round((random.getAsDouble() * 2 - 1) * range);
+        }
+        return Math.max(1, delay);
+    }
+
+    private static long hash(String instanceId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(instanceId.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.turkcell.bt.java;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class RequestLeaseManager {
+    private static final Duration RENEWAL_MARGIN = Duration.ofSeconds(60);
+
+    private final Duration leaseDuration;
+    private final Duration renewalMargin;
+    private final Clock clock;
+    private final ConcurrentHashMap<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    RequestLeaseManager(Duration leaseDuration, Clock clock) {
+        this.leaseDuration = leaseDuration;
+        this.renewalMargin = RENEWAL_MARGIN.compareTo(leaseDuration.dividedBy(2)) < 0 ? RENEWAL_MARGIN : leaseDuration.dividedBy(2);
+        this.clock = clock;
+    }
+
+    String credential(int systemId, int accountId) {
+        Lease lease = leases.get(key(systemId, accountId));
+        return lease != null && isUsable(lease) ? lease.credential : null;
+    }
+
+    String removeExpiring(int systemId, int accountId) {
+        long key = key(systemId, accountId);
+        Lease lease = leases.get(key);
+        if (lease == null || isUsable(lease) || !leases.remove(key, lease)) {
+            return null;
+        }
+
+        return lease.requestId;
+    }
+
+    void put(int systemId, int accountId, String requestId, String credential, Instant requestedAt) {
+        leases.put(key(systemId, accountId), new Lease(requestId, credential, requestedAt.plus(leaseDuration)));
+    }
+
+    List<String> removeAll() {
+        List<String> requestIds = new ArrayList<>();
+        for (Long key : leases.keySet()) {
+            Lease lease = leases.remove(key);
+            if (lease != null) {
+                requestIds.add(lease.requestId);
+            }
+        }
+        return requestIds;
+    }
+
+    int size() {
+        return leases.size();
+    }
+
+    private boolean isUsable(Lease lease) {
+        return clock.instant().isBefore(lease.expiresAt.minus(renewalMargin));
+    }
+
+    static long key(int systemId, int accountId) {
+        return ((long) systemId << 32) | (accountId & 0xffffffffL);
+    }
+
+    private static final class Lease {
+        private final String requestId;
+        private final String credential;
+        private final Instant expiresAt;
+
+        private Lease(String requestId, String credential, Instant expiresAt) {
+            this.requestId = requestId;
+            this.credential = credential;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
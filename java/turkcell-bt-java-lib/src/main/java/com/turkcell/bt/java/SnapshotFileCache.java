@@ -0,0 +1,172 @@
+package com.turkcell.bt.java;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class SnapshotFileCache {
+    private static final byte[] HEADER = {'B', 'T', 'S', 'C', 1};
+    private static final int SALT_LENGTH = 16;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final int KEY_LENGTH_BITS = 256;
+    private static final int KEY_ITERATIONS = 120_000;
+
+    private final Path path;
+    private final char[] passphrase;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    SnapshotFileCache(Path path, String passphrase, Duration maxAge, Clock clock) {
+        this.path = path;
+        this.passphrase = passphrase.toCharArray();
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    static SnapshotFileCache fromOptions(BeyondTrustOptions options) {
+        if (!hasValue(options.getSnapshotCachePath()) || !hasValue(options.getSnapshotCacheKey())) {
+            return null;
+        }
+
+        return new SnapshotFileCache(
+                Path.of(options.getSnapshotCachePath().trim()),
+                options.getSnapshotCacheKey(),
+                Duration.ofSeconds(options.getSnapshotCacheMaxAgeSeconds()),
+                Clock.systemUTC());
+    }
+
+    Map<String, String> read() {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(path);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (Exception ex) {
+            System.err.println("[BeyondTrust] Snapshot cache could not be read: " + ex.getMessage());
+            return null;
+        }
+
+        try {
+            if (content.length < HEADER.length + SALT_LENGTH + IV_LENGTH
+                    || !Arrays.equals(Arrays.copyOf(content, HEADER.length), HEADER)) {
+                throw new IllegalStateException("unsupported file format");
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(content, HEADER.length, content.length - HEADER.length);
+            byte[] salt = new byte[SALT_LENGTH];
+            byte[] iv = new byte[IV_LENGTH];
+            buffer.get(salt);
+            buffer.get(iv);
+            byte[] cipherText = new byte[buffer.remaining()];
+            buffer.get(cipherText);
+
+            CachedSnapshot cached = objectMapper.readValue(
+                    cipher(Cipher.DECRYPT_MODE, salt, iv).doFinal(cipherText),
+                    new TypeReference<CachedSnapshot>() {});
+
+            Instant savedAt = Instant.ofEpochMilli(cached.savedAt);
+            if (savedAt.plus(maxAge).isBefore(clock.instant())) {
+                System.out.println("[BeyondTrust] Snapshot cache is older than the configured maximum age and was ignored.");
+                return null;
+            }
+
+            return cached.entries == null ? new LinkedHashMap<>() : cached.entries;
+        } catch (Exception ex) {
+            System.err.println("[BeyondTrust] Snapshot cache could not be decrypted and was ignored: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    void write(Map<String, String> snapshot) {
+        try {
+            CachedSnapshot cached = new CachedSnapshot();
+            cached.savedAt = clock.millis();
+            cached.entries = new LinkedHashMap<>(snapshot);
+
+            byte[] salt = new byte[SALT_LENGTH];
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(salt);
+            secureRandom.nextBytes(iv);
+            byte[] cipherText = cipher(Cipher.ENCRYPT_MODE, salt, iv).doFinal(objectMapper.writeValueAsBytes(cached));
+
+            byte[] content = ByteBuffer.allocate(HEADER.length + SALT_LENGTH + IV_LENGTH + cipherText.length)
+                    .put(HEADER)
+                    .put(salt)
+                    .put(iv)
+                    .put(cipherText)
+                    .array();
+
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = createOwnerOnlyTempFile(directory);
+            try {
+                Files.write(temporaryFile, content);
+                moveIntoPlace(temporaryFile);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (Exception ex) {
+            System.err.println("[BeyondTrust] Snapshot cache could not be written: " + ex.getMessage());
+        }
+    }
+
+    private Cipher cipher(int mode, byte[] salt, byte[] iv) throws GeneralSecurityException {
+        SecretKeyFactory keyFactory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        byte[] key = keyFactory.generateSecret(new PBEKeySpec(passphrase, salt, KEY_ITERATIONS, KEY_LENGTH_BITS)).getEncoded();
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, new SecretKeySpec(key, "AES"), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        cipher.updateAAD(HEADER);
+        return cipher;
+    }
+
+    private Path createOwnerOnlyTempFile(Path directory) throws Exception {
+        String prefix = path.getFileName() + ".";
+        try {
+            return Files.createTempFile(directory, prefix, ".tmp",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException ex) {
+            return Files.createTempFile(directory, prefix, ".tmp");
+        }
+    }
+
+    private void moveIntoPlace(Path temporaryFile) throws Exception {
+        try {
+            Files.move(temporaryFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean hasValue(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    static final class CachedSnapshot {
+        public long savedAt;
+        public LinkedHashMap<String, String> entries;
+    }
+}
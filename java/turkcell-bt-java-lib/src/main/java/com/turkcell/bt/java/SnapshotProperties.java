@@ -0,0 +1,233 @@
+package com.turkcell.bt.java;
+
+import java.io.InputStream;
+import java.io.ObjectStreamException;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+final class SnapshotProperties extends Properties {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<String, String> entries;
+    private final transient Map<Object, Object> view;
+
+    @SuppressWarnings("unchecked")
+    SnapshotProperties(Map<String, String> entries) {
+        super(0);
+        this.entries = entries;
+        this.view = Collections.unmodifiableMap((Map<Object, Object>) (Map<?, ?>) entries);
+    }
+
+    @Override
+    public String getProperty(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public String getProperty(String key, String defaultValue) {
+        String value = entries.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        return view.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return entries.containsValue(value);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return entries.containsValue(value);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public Set<Object> keySet() {
+        return view.keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return view.values();
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet() {
+        return view.entrySet();
+    }
+
+    @Override
+    public Enumeration<Object> keys() {
+        return Collections.enumeration(view.keySet());
+    }
+
+    @Override
+    public Enumeration<Object> elements() {
+        return Collections.enumeration(view.values());
+    }
+
+    @Override
+    public Enumeration<?> propertyNames() {
+        return Collections.enumeration(entries.keySet());
+    }
+
+    @Override
+    public Set<String> stringPropertyNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Object, ? super Object> action) {
+        view.forEach(action);
+    }
+
+    @Override
+    public Object setProperty(String key, String value) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void putAll(Map<?, ?> map) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object putIfAbsent(Object key, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean replace(Object key, Object oldValue, Object newValue) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object replace(Object key, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object computeIfPresent(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object merge(Object key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear() {
+        throw readOnly();
+    }
+
+    @Override
+    public void load(Reader reader) {
+        throw readOnly();
+    }
+
+    @Override
+    public void load(InputStream inStream) {
+        throw readOnly();
+    }
+
+    @Override
+    public void loadFromXML(InputStream in) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object clone() {
+        return copy();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return view.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return view.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return view.toString();
+    }
+
+    private Properties copy() {
+        Properties properties = new Properties();
+        properties.putAll(entries);
+        return properties;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        return copy();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("BeyondTrust configuration properties are read-only.");
+    }
+}
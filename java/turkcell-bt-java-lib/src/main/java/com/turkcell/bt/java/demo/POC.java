@@ -2,6 +2,9 @@ package com.turkcell.bt.java.demo;
 
 import com.turkcell.bt.java.BeyondTrustConfigurationManager;
 
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 public final class POC {
 
     private POC() {
@@ -12,22 +15,22 @@ public final class POC {
         String exampleSafePasswordKey = System.getenv("BT_EXAMPLE_SAFE_PASSWORD").strip();
         String exampleSafeUsernameKey = System.getenv("BT_EXAMPLE_SAFE_USERNAME").strip();
 
-        try (BeyondTrustConfigurationManager manager = BeyondTrustConfigurationManager.createAndLoad()) {
-            String previousOutput = "";
-
-            while (true) {
-                String currentOutput = buildOutputBlock(
-                        exampleAccountKey, manager.getProperty(exampleAccountKey),
-                        exampleSafePasswordKey, manager.getProperty(exampleSafePasswordKey),
-                        exampleSafeUsernameKey, manager.getProperty(exampleSafeUsernameKey));
+        List<String> watchedKeys = List.of(exampleAccountKey, exampleSafePasswordKey, exampleSafeUsernameKey);
 
-                if (!currentOutput.equals(previousOutput)) {
-                    System.out.print(currentOutput);
-                    previousOutput = currentOutput;
+        try (BeyondTrustConfigurationManager manager = BeyondTrustConfigurationManager.createAndLoad()) {
+            Runnable printOutput = () -> System.out.print(buildOutputBlock(
+                    exampleAccountKey, manager.getProperty(exampleAccountKey),
+                    exampleSafePasswordKey, manager.getProperty(exampleSafePasswordKey),
+                    exampleSafeUsernameKey, manager.getProperty(exampleSafeUsernameKey)));
+
+            printOutput.run();
+            manager.addChangeListener(event -> {
+                if (watchedKeys.stream().anyMatch(event::affects)) {
+                    printOutput.run();
                 }
+            });
 
-                Thread.sleep(1000);
-            }
+            new CountDownLatch(1).await();
         }
     }
 
@@ -3,12 +3,30 @@ package com.turkcell.bt.java;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 class BeyondTrustConfigurationManagerTest {
 
@@ -27,7 +45,32 @@ class BeyondTrustConfigurationManagerTest {
             "BEYONDTRUST_MANAGED_ACCOUNTS",
             "BEYONDTRUST_ALL_MANAGED_ACCOUNTS_ENABLED",
             "BEYONDTRUST_SECRET_SAFE_PATHS",
-            "BEYONDTRUST_ALL_SECRETS_ENABLED"
+            "BEYONDTRUST_ALL_SECRETS_ENABLED",
+            "BEYONDTRUST_FETCH_CONCURRENCY",
+            "BEYONDTRUST_LAZY_MANAGED_ACCOUNTS_ENABLED",
+            "BEYONDTRUST_LAZY_CREDENTIAL_TTL",
+            "BEYONDTRUST_SNAPSHOT_CACHE_PATH",
+            "BEYONDTRUST_SNAPSHOT_CACHE_KEY",
+            "BEYONDTRUST_SNAPSHOT_CACHE_MAX_AGE",
+            "BEYONDTRUST_CREDENTIAL_POLL_ATTEMPTS",
+            "BEYONDTRUST_CREDENTIAL_POLL_INITIAL_DELAY_MS",
+            "BEYONDTRUST_CREDENTIAL_POLL_MAX_DELAY_MS",
+            "BEYONDTRUST_CREDENTIAL_POLL_TIMEOUT",
+            "BEYONDTRUST_ASYNC_CHECKIN_ENABLED",
+            "BEYONDTRUST_CHECKIN_RETRY_ATTEMPTS",
+            "BEYONDTRUST_REQUEST_DURATION_MINUTES",
+            "BEYONDTRUST_REQUEST_LEASE_ENABLED",
+            "BEYONDTRUST_MANAGED_ACCOUNT_LOOKUP_THRESHOLD",
+            "BEYONDTRUST_HTTP_VERSION",
+            "BEYONDTRUST_CONNECT_TIMEOUT",
+            "BEYONDTRUST_REQUEST_TIMEOUT",
+            "BEYONDTRUST_CIRCUIT_FAILURE_THRESHOLD",
+            "BEYONDTRUST_CIRCUIT_MAX_BACKOFF",
+            "BEYONDTRUST_REFRESH_SPREAD",
+            "BEYONDTRUST_REFRESH_JITTER_PERCENT",
+            "BEYONDTRUST_INSTANCE_ID",
+            "BEYONDTRUST_ACCOUNT_CATALOG_TTL",
+            "BEYONDTRUST_VIRTUAL_THREADS_ENABLED"
     };
 
     @AfterEach
@@ -120,6 +163,181 @@ class BeyondTrustConfigurationManagerTest {
         assertTrue(exception.getMessage().contains("BEYONDTRUST_REFRESH_INTERVAL"));
     }
 
+    @Test
+    @DisplayName("fromEnv fetch concurrency verilmezse sequential default kullanmali, verilirse okumali")
+    void fromEnvReadsFetchConcurrency() {
+        assertEquals(1, BeyondTrustOptions.fromEnv().getFetchConcurrency());
+
+        System.setProperty("BEYONDTRUST_FETCH_CONCURRENCY", "8");
+
+        assertEquals(8, BeyondTrustOptions.fromEnv().getFetchConcurrency());
+    }
+
+    @Test
+    @DisplayName("fromEnv invalid fetch concurrency degeri verildiginde error vermeli")
+    void fromEnvThrowsWhenFetchConcurrencyIsInvalid() {
+        System.setProperty("BEYONDTRUST_FETCH_CONCURRENCY", "0");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+
+        assertTrue(exception.getMessage().contains("BEYONDTRUST_FETCH_CONCURRENCY"));
+    }
+
+    @Test
+    @DisplayName("fromEnv lazy managed account ayarlarini okumali")
+    void fromEnvReadsLazyManagedAccountSettings() {
+        BeyondTrustOptions defaults = BeyondTrustOptions.fromEnv();
+        assertFalse(defaults.isLazyManagedAccountsEnabled());
+        assertEquals(300, defaults.getLazyCredentialTtlSeconds());
+
+        System.setProperty("BEYONDTRUST_LAZY_MANAGED_ACCOUNTS_ENABLED", "true");
+        System.setProperty("BEYONDTRUST_LAZY_CREDENTIAL_TTL", "90");
+
+        BeyondTrustOptions options = BeyondTrustOptions.fromEnv();
+        assertTrue(options.isLazyManagedAccountsEnabled());
+        assertEquals(90, options.getLazyCredentialTtlSeconds());
+    }
+
+    @Test
+    @DisplayName("fromEnv snapshot cache ayarlarini okumali")
+    void fromEnvReadsSnapshotCacheSettings() {
+        BeyondTrustOptions defaults = BeyondTrustOptions.fromEnv();
+        assertNull(defaults.getSnapshotCachePath());
+        assertEquals(86400, defaults.getSnapshotCacheMaxAgeSeconds());
+
+        System.setProperty("BEYONDTRUST_SNAPSHOT_CACHE_PATH", "/var/cache/bt/snapshot.bin");
+        System.setProperty("BEYONDTRUST_SNAPSHOT_CACHE_KEY", "cache-key");
+        System.setProperty("BEYONDTRUST_SNAPSHOT_CACHE_MAX_AGE", "3600");
+
+        BeyondTrustOptions options = BeyondTrustOptions.fromEnv();
+        assertEquals("/var/cache/bt/snapshot.bin", options.getSnapshotCachePath());
+        assertEquals("cache-key", options.getSnapshotCacheKey());
+        assertEquals(3600, options.getSnapshotCacheMaxAgeSeconds());
+    }
+
+    @Test
+    @DisplayName("fromEnv credential polling ayarlarini okumali")
+    void fromEnvReadsCredentialPollingSettings() {
+        BeyondTrustOptions defaults = BeyondTrustOptions.fromEnv();
+        assertEquals(5, defaults.getCredentialPollAttempts());
+        assertEquals(1000, defaults.getCredentialPollInitialDelayMillis());
+        assertEquals(8000, defaults.getCredentialPollMaxDelayMillis());
+        assertEquals(30, defaults.getCredentialPollTimeoutSeconds());
+
+        System.setProperty("BEYONDTRUST_CREDENTIAL_POLL_ATTEMPTS", "8");
+        System.setProperty("BEYONDTRUST_CREDENTIAL_POLL_INITIAL_DELAY_MS", "250");
+        System.setProperty("BEYONDTRUST_CREDENTIAL_POLL_MAX_DELAY_MS", "4000");
+        System.setProperty("BEYONDTRUST_CREDENTIAL_POLL_TIMEOUT", "60");
+
+        BeyondTrustOptions options = BeyondTrustOptions.fromEnv();
+        assertEquals(8, options.getCredentialPollAttempts());
+        assertEquals(250, options.getCredentialPollInitialDelayMillis());
+        assertEquals(4000, options.getCredentialPollMaxDelayMillis());
+        assertEquals(60, options.getCredentialPollTimeoutSeconds());
+    }
+
+    @Test
+    @DisplayName("fromEnv async check-in ayarlarini okumali")
+    void fromEnvReadsAsyncCheckInSettings() {
+        BeyondTrustOptions defaults = BeyondTrustOptions.fromEnv();
+        assertFalse(defaults.isAsyncCheckInEnabled());
+        assertEquals(3, defaults.getCheckInRetryAttempts());
+
+        System.setProperty("BEYONDTRUST_ASYNC_CHECKIN_ENABLED", "true");
+        System.setProperty("BEYONDTRUST_CHECKIN_RETRY_ATTEMPTS", "5");
+
+        BeyondTrustOptions options = BeyondTrustOptions.fromEnv();
+        assertTrue(options.isAsyncCheckInEnabled());
+        assertEquals(5, options.getCheckInRetryAttempts());
+    }
+
+    @Test
+    @DisplayName("fromEnv request lease ayarlarini okumali")
+    void fromEnvReadsRequestLeaseSettings() {
+        BeyondTrustOptions defaults = BeyondTrustOptions.fromEnv();
+        assertFalse(defaults.isRequestLeaseEnabled());
+        assertEquals(5, defaults.getRequestDurationMinutes());
+
+        System.setProperty("BEYONDTRUST_REQUEST_LEASE_ENABLED", "true");
+        System.setProperty("BEYONDTRUST_REQUEST_DURATION_MINUTES", "30");
+
+        BeyondTrustOptions options = BeyondTrustOptions.fromEnv();
+        assertTrue(options.isRequestLeaseEnabled());
+        assertEquals(30, options.getRequestDurationMinutes());
+    }
+
+    @Test
+    @DisplayName("fromEnv managed account lookup threshold degerini okumali ve negatif degeri reddetmeli")
+    void fromEnvReadsManagedAccountLookupThreshold() {
+        assertEquals(0, BeyondTrustOptions.fromEnv().getManagedAccountLookupThreshold());
+
+        System.setProperty("BEYONDTRUST_MANAGED_ACCOUNT_LOOKUP_THRESHOLD", "10");
+        assertEquals(10, BeyondTrustOptions.fromEnv().getManagedAccountLookupThreshold());
+
+        System.setProperty("BEYONDTRUST_MANAGED_ACCOUNT_LOOKUP_THRESHOLD", "-1");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+        assertTrue(exception.getMessage().contains("BEYONDTRUST_MANAGED_ACCOUNT_LOOKUP_THRESHOLD"));
+    }
+
+    @Test
+    @DisplayName("fromEnv HTTP version ve timeout degerlerini okumali")
+    void fromEnvReadsTransportSettings() {
+        BeyondTrustOptions defaults = BeyondTrustOptions.fromEnv();
+        assertEquals(HttpClient.Version.HTTP_1_1, defaults.getHttpVersion());
+        assertEquals(30, defaults.getConnectTimeoutSeconds());
+        assertEquals(30, defaults.getRequestTimeoutSeconds());
+        assertNull(defaults.getHttpExecutor());
+
+        System.setProperty("BEYONDTRUST_HTTP_VERSION", "http_2");
+        System.setProperty("BEYONDTRUST_CONNECT_TIMEOUT", "5");
+        System.setProperty("BEYONDTRUST_REQUEST_TIMEOUT", "90");
+        BeyondTrustOptions options = BeyondTrustOptions.fromEnv();
+        assertEquals(HttpClient.Version.HTTP_2, options.getHttpVersion());
+        assertEquals(5, options.getConnectTimeoutSeconds());
+        assertEquals(90, options.getRequestTimeoutSeconds());
+
+        System.setProperty("BEYONDTRUST_HTTP_VERSION", "1.1");
+        assertEquals(HttpClient.Version.HTTP_1_1, BeyondTrustOptions.fromEnv().getHttpVersion());
+    }
+
+    @Test
+    @DisplayName("fromEnv invalid HTTP version veya timeout degeri verildiginde error vermeli")
+    void fromEnvThrowsWhenTransportSettingsAreInvalid() {
+        System.setProperty("BEYONDTRUST_HTTP_VERSION", "HTTP_3");
+        IllegalArgumentException versionException = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+        assertTrue(versionException.getMessage().contains("BEYONDTRUST_HTTP_VERSION"));
+
+        System.clearProperty("BEYONDTRUST_HTTP_VERSION");
+        System.setProperty("BEYONDTRUST_REQUEST_TIMEOUT", "0");
+        IllegalArgumentException timeoutException = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+        assertTrue(timeoutException.getMessage().contains("BEYONDTRUST_REQUEST_TIMEOUT"));
+    }
+
+    @Test
+    @DisplayName("fromEnv invalid credential poll timeout degeri verildiginde error vermeli")
+    void fromEnvThrowsWhenCredentialPollTimeoutIsInvalid() {
+        System.setProperty("BEYONDTRUST_CREDENTIAL_POLL_TIMEOUT", "-1");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+
+        assertTrue(exception.getMessage().contains("BEYONDTRUST_CREDENTIAL_POLL_TIMEOUT"));
+    }
+
+    @Test
+    @DisplayName("Snapshot cache path verilip key verilmediginde validation error vermeli")
+    void validateRequiresSnapshotCacheKeyWhenPathIsSet() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSnapshotCachePath("/var/cache/bt/snapshot.bin");
+
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, Map::of)) {
+            assertEquals(List.of("BEYONDTRUST_SNAPSHOT_CACHE_KEY"), invokeValidateRequiredSettings(manager));
+        }
+    }
+
     @Test
     @DisplayName("fromEnv explicit false verildiginde classic mode secimini korumali")
     void fromEnvSupportsExplicitClassicMode() {
@@ -285,7 +503,7 @@ class BeyondTrustConfigurationManagerTest {
 
         var schedulerField = BeyondTrustConfigurationManager.class.getDeclaredField("scheduler");
         schedulerField.setAccessible(true);
-        var scheduler = (java.util.concurrent.ScheduledExecutorService) schedulerField.get(manager);
+        var scheduler = (ScheduledExecutorService) schedulerField.get(manager);
 
         assertNotNull(scheduler);
         assertFalse(scheduler.isShutdown());
@@ -295,6 +513,88 @@ class BeyondTrustConfigurationManagerTest {
         assertTrue(scheduler.isShutdown());
     }
 
+    @Test
+    @DisplayName("Default loader refreshler arasinda tek BeyondTrustService kullanmali ve close ile birakmali")
+    void defaultLoaderReusesSingleServiceAcrossRefreshes() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://127.0.0.1:1/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options);
+        manager.load();
+
+        var serviceField = BeyondTrustConfigurationManager.class.getDeclaredField("service");
+        serviceField.setAccessible(true);
+        Object initialService = serviceField.get(manager);
+        assertNotNull(initialService);
+
+        invokePrivate(manager, "refreshInternal");
+        assertSame(initialService, serviceField.get(manager));
+
+        manager.close();
+        assertNull(serviceField.get(manager));
+
+        invokePrivate(manager, "refreshInternal");
+        assertNull(serviceField.get(manager));
+    }
+
+    @Test
+    @DisplayName("close devam eden refresh bitene kadar beklemeli ve close sonrasi sonucu yayinlamamali")
+    void closeWaitsForRunningRefreshAndDiscardsItsResult(@TempDir Path tempDir) throws Exception {
+        Path cacheFile = tempDir.resolve("snapshot.bin");
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+        options.setSnapshotCachePath(cacheFile.toString());
+        options.setSnapshotCacheKey("cache-key");
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, () -> {
+            if (loads.incrementAndGet() == 1) {
+                return Map.of("bt.acc.Sys.Account", "initial-value");
+            }
+
+            refreshStarted.countDown();
+            assertTrue(releaseRefresh.await(5, TimeUnit.SECONDS));
+            return Map.of("bt.acc.Sys.Account", "late-value");
+        });
+        manager.load();
+        Files.delete(cacheFile);
+
+        Thread refresh = new Thread(() -> {
+            try {
+                invokePrivate(manager, "refreshInternal");
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        refresh.start();
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch closed = new CountDownLatch(1);
+        Thread closer = new Thread(() -> {
+            manager.close();
+            closed.countDown();
+        });
+        closer.start();
+
+        assertFalse(closed.await(200, TimeUnit.MILLISECONDS));
+        releaseRefresh.countDown();
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        refresh.join(5_000);
+
+        assertEquals("initial-value", manager.getProperty("bt.acc.Sys.Account"));
+        assertFalse(Files.exists(cacheFile));
+    }
+
     @Test
     @DisplayName("Refresh failure son basarili snapshoti korumali")
     void refreshFailureKeepsLastSnapshot() throws Exception {
@@ -320,6 +620,236 @@ class BeyondTrustConfigurationManagerTest {
         }
     }
 
+    @Test
+    @DisplayName("Ardisik refresh hatalarinda circuit acilmali, probe basarili olana kadar loader cagrilmamali")
+    void circuitBreakerProbesBeforeResumingRefresh() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+        options.setCircuitFailureThreshold(2);
+
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger probes = new AtomicInteger();
+        AtomicBoolean healthy = new AtomicBoolean();
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, () -> {
+            if (loads.incrementAndGet() == 1 || healthy.get()) {
+                return Map.of("bt.acc.Sys.Account", "value-" + loads.get());
+            }
+
+            throw new IllegalStateException("simulated outage");
+        }, null, () -> {
+            probes.incrementAndGet();
+            if (!healthy.get()) {
+                throw new IllegalStateException("appliance unreachable");
+            }
+        })) {
+            manager.load();
+            invokePrivate(manager, "refreshInternal");
+            assertEquals(BeyondTrustCircuitState.CLOSED, manager.getCircuitState());
+
+            invokePrivate(manager, "refreshInternal");
+            assertEquals(BeyondTrustCircuitState.OPEN, manager.getCircuitState());
+            assertEquals(3, loads.get());
+
+            invokePrivate(manager, "refreshInternal");
+            assertEquals(BeyondTrustCircuitState.OPEN, manager.getCircuitState());
+            assertEquals(3, loads.get());
+            assertEquals(1, probes.get());
+
+            healthy.set(true);
+            invokePrivate(manager, "refreshInternal");
+            assertEquals(BeyondTrustCircuitState.CLOSED, manager.getCircuitState());
+            assertEquals(4, loads.get());
+            assertEquals(2, probes.get());
+            assertEquals("value-4", manager.getProperty("bt.acc.Sys.Account"));
+        }
+    }
+
+    @Test
+    @DisplayName("Half-open refresh basarisiz olursa circuit tekrar acilmali")
+    void circuitReopensWhenHalfOpenRefreshFails() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(60);
+        options.setCircuitFailureThreshold(1);
+
+        BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, () -> {
+            throw new IllegalStateException("simulated outage");
+        });
+        manager.load();
+        assertEquals(BeyondTrustCircuitState.OPEN, manager.getCircuitState());
+
+        invokePrivate(manager, "refreshInternal");
+        assertEquals(BeyondTrustCircuitState.OPEN, manager.getCircuitState());
+
+        manager.close();
+        assertDoesNotThrow(() -> invokePrivate(manager, "runScheduledRefresh"));
+    }
+
+    @Test
+    @DisplayName("Ilk yukleme circuit'i actiginda ilk background refresh backoff suresiyle planlanmali")
+    void firstRefreshAfterFailedInitialLoadUsesCircuitBackoff() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(60);
+        options.setCircuitFailureThreshold(1);
+
+        ScheduledExecutorService failedScheduler = mock(ScheduledExecutorService.class);
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, () -> {
+            throw new IllegalStateException("simulated outage");
+        })) {
+            setScheduler(manager, failedScheduler);
+            manager.load();
+
+            assertEquals(BeyondTrustCircuitState.OPEN, manager.getCircuitState());
+            verify(failedScheduler).schedule(any(Runnable.class), eq(120L), eq(TimeUnit.SECONDS));
+        }
+
+        ScheduledExecutorService healthyScheduler = mock(ScheduledExecutorService.class);
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options,
+                () -> Map.of("bt.acc.Sys.Account", "value"))) {
+            setScheduler(manager, healthyScheduler);
+            manager.load();
+
+            verify(healthyScheduler).schedule(any(Runnable.class), eq(60L), eq(TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("fromEnv circuit breaker ayarlarini okumali")
+    void fromEnvReadsCircuitBreakerSettings() {
+        BeyondTrustOptions defaults = BeyondTrustOptions.fromEnv();
+        assertEquals(3, defaults.getCircuitFailureThreshold());
+        assertEquals(3600, defaults.getCircuitMaxBackoffSeconds());
+
+        System.setProperty("BEYONDTRUST_CIRCUIT_FAILURE_THRESHOLD", "5");
+        System.setProperty("BEYONDTRUST_CIRCUIT_MAX_BACKOFF", "600");
+        BeyondTrustOptions options = BeyondTrustOptions.fromEnv();
+        assertEquals(5, options.getCircuitFailureThreshold());
+        assertEquals(600, options.getCircuitMaxBackoffSeconds());
+
+        System.setProperty("BEYONDTRUST_CIRCUIT_MAX_BACKOFF", "0");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+        assertTrue(exception.getMessage().contains("BEYONDTRUST_CIRCUIT_MAX_BACKOFF"));
+    }
+
+    @Test
+    @DisplayName("fromEnv refresh spread, jitter ve instance id degerlerini okumali")
+    void fromEnvReadsRefreshSpreadSettings() {
+        BeyondTrustOptions defaults = BeyondTrustOptions.fromEnv();
+        assertEquals(BeyondTrustRefreshSpread.NONE, defaults.getRefreshSpread());
+        assertEquals(0, defaults.getRefreshJitterPercent());
+
+        System.setProperty("BEYONDTRUST_REFRESH_SPREAD", "instance");
+        System.setProperty("BEYONDTRUST_REFRESH_JITTER_PERCENT", "15");
+        System.setProperty("BEYONDTRUST_INSTANCE_ID", "pod-7");
+        BeyondTrustOptions options = BeyondTrustOptions.fromEnv();
+        assertEquals(BeyondTrustRefreshSpread.INSTANCE, options.getRefreshSpread());
+        assertEquals(15, options.getRefreshJitterPercent());
+        assertEquals("pod-7", options.getInstanceId());
+
+        System.setProperty("BEYONDTRUST_REFRESH_JITTER_PERCENT", "51");
+        IllegalArgumentException jitterException = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+        assertTrue(jitterException.getMessage().contains("BEYONDTRUST_REFRESH_JITTER_PERCENT"));
+
+        System.clearProperty("BEYONDTRUST_REFRESH_JITTER_PERCENT");
+        System.setProperty("BEYONDTRUST_REFRESH_SPREAD", "hourly");
+        IllegalArgumentException spreadException = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+        assertTrue(spreadException.getMessage().contains("BEYONDTRUST_REFRESH_SPREAD"));
+    }
+
+    @Test
+    @DisplayName("Kismi refresh basarisiz itemlarin onceki degerlerini korumali ve stale olarak isaretlemeli")
+    void partialRefreshKeepsPreviousValuesForFailedItems() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        AtomicInteger calls = new AtomicInteger();
+        BeyondTrustConfigurationManager.SnapshotLoader loader = new BeyondTrustConfigurationManager.SnapshotLoader() {
+            @Override
+            public Map<String, String> load() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public FetchResult loadResult() {
+                if (calls.incrementAndGet() == 1) {
+                    return FetchResult.complete(orderedMap(
+                            "bt.acc.Sys.A", "a-1",
+                            "bt.acc.Sys.B", "b-1",
+                            "bt.safe.Folder.Db.password", "db-1",
+                            "bt.safe.Folder.Db.username", "db-user"));
+                }
+
+                if (calls.get() == 2) {
+                    return new FetchResult(orderedMap("bt.acc.Sys.A", "a-2", "bt.acc.Sys.New", "new-2"),
+                            Set.of("bt.acc.Sys.B", "bt.acc.Sys.Missing",
+                                    "bt.safe.Folder.Db.password", "bt.safe.Folder.Db.username"));
+                }
+
+                return FetchResult.complete(orderedMap("bt.acc.Sys.A", "a-3"));
+            }
+        };
+
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, loader)) {
+            manager.load();
+            assertTrue(manager.getStaleKeys().isEmpty());
+
+            invokePrivate(manager, "refreshInternal");
+            assertEquals("a-2", manager.getProperty("bt.acc.Sys.A"));
+            assertEquals("new-2", manager.getProperty("bt.acc.Sys.New"));
+            assertEquals("b-1", manager.getProperty("bt.acc.Sys.B"));
+            assertEquals("db-1", manager.getProperty("bt.safe.Folder.Db.password"));
+            assertNull(manager.getProperty("bt.acc.Sys.Missing"));
+            assertEquals(Set.of("bt.acc.Sys.B", "bt.safe.Folder.Db.password", "bt.safe.Folder.Db.username"),
+                    manager.getStaleKeys());
+            assertEquals(BeyondTrustCircuitState.CLOSED, manager.getCircuitState());
+
+            invokePrivate(manager, "refreshInternal");
+            assertEquals(Map.of("bt.acc.Sys.A", "a-3"), manager.getPropertyMap());
+            assertTrue(manager.getStaleKeys().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("fromEnv managed account katalog TTL degerini okumali")
+    void fromEnvReadsAccountCatalogTtl() {
+        assertEquals(0, BeyondTrustOptions.fromEnv().getAccountCatalogTtlSeconds());
+
+        System.setProperty("BEYONDTRUST_ACCOUNT_CATALOG_TTL", "21600");
+        assertEquals(21600, BeyondTrustOptions.fromEnv().getAccountCatalogTtlSeconds());
+
+        System.setProperty("BEYONDTRUST_ACCOUNT_CATALOG_TTL", "-5");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+        assertTrue(exception.getMessage().contains("BEYONDTRUST_ACCOUNT_CATALOG_TTL"));
+    }
+
+    @Test
+    @DisplayName("fromEnv virtual thread modunu okumali ve varsayilan olarak kapali birakmali")
+    void fromEnvReadsVirtualThreadsFlag() {
+        assertFalse(BeyondTrustOptions.fromEnv().isVirtualThreadsEnabled());
+
+        System.setProperty("BEYONDTRUST_VIRTUAL_THREADS_ENABLED", "true");
+        assertTrue(BeyondTrustOptions.fromEnv().isVirtualThreadsEnabled());
+
+        System.setProperty("BEYONDTRUST_VIRTUAL_THREADS_ENABLED", "sometimes");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, BeyondTrustOptions::fromEnv);
+        assertTrue(exception.getMessage().contains("BEYONDTRUST_VIRTUAL_THREADS_ENABLED"));
+    }
+
     @Test
     @DisplayName("Basarili refresh yeni snapshoti atomik sekilde replace etmeli")
     void refreshSuccessReplacesSnapshotAtomically() throws Exception {
@@ -348,6 +878,270 @@ class BeyondTrustConfigurationManagerTest {
         }
     }
 
+    @Test
+    @DisplayName("Snapshot degistiginde change listener added removed changed keyleri ve generation almali")
+    void changeListenerReceivesKeyDiffsWithGeneration() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        List<Map<String, String>> snapshots = new ArrayList<>();
+        snapshots.add(orderedMap("bt.acc.Sys.A", "a1", "bt.acc.Sys.B", "b1", "bt.acc.Sys.C", "c1"));
+        snapshots.add(orderedMap("bt.acc.Sys.A", "a1", "bt.acc.Sys.B", "b2", "bt.acc.Sys.D", "d1"));
+        snapshots.add(orderedMap("bt.acc.Sys.A", "a1", "bt.acc.Sys.B", "b2", "bt.acc.Sys.D", "d1"));
+
+        List<BeyondTrustChangeEvent> events = new ArrayList<>();
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, () -> snapshots.remove(0))) {
+            manager.addChangeListener(events::add);
+            manager.addChangeListener(event -> {
+                throw new IllegalStateException("listener failure should be isolated");
+            });
+
+            manager.load();
+            invokePrivate(manager, "refreshInternal");
+            invokePrivate(manager, "refreshInternal");
+        }
+
+        assertEquals(2, events.size());
+        assertEquals(1, events.get(0).getGeneration());
+        assertEquals(Set.of("bt.acc.Sys.A", "bt.acc.Sys.B", "bt.acc.Sys.C"), events.get(0).getAddedKeys());
+
+        BeyondTrustChangeEvent refreshEvent = events.get(1);
+        assertEquals(2, refreshEvent.getGeneration());
+        assertEquals(Set.of("bt.acc.Sys.D"), refreshEvent.getAddedKeys());
+        assertEquals(Set.of("bt.acc.Sys.C"), refreshEvent.getRemovedKeys());
+        assertEquals(Set.of("bt.acc.Sys.B"), refreshEvent.getChangedKeys());
+        assertTrue(refreshEvent.affects("bt.acc.Sys.B"));
+        assertFalse(refreshEvent.affects("bt.acc.Sys.A"));
+    }
+
+    @Test
+    @DisplayName("Kaldirilan change listener sonraki degisiklikleri almamali")
+    void removedChangeListenerIsNotNotified() {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        List<BeyondTrustChangeEvent> events = new ArrayList<>();
+        BeyondTrustChangeListener listener = events::add;
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options,
+                () -> Map.of("bt.acc.Sys.Account", "value"))) {
+            manager.addChangeListener(listener);
+            manager.removeChangeListener(listener);
+            manager.load();
+        }
+
+        assertTrue(events.isEmpty());
+        assertThrows(NullPointerException.class,
+                () -> new BeyondTrustConfigurationManager(options, Map::of).addChangeListener(null));
+    }
+
+    @Test
+    @DisplayName("Lazy resolver sadece snapshotta olmayan bt.acc keyleri icin kullanilmali")
+    void lazyResolverIsUsedForMissingManagedAccountKeys() {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        List<String> resolvedKeys = new ArrayList<>();
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options,
+                () -> Map.of("bt.safe.Team.Api.password", "safe-value"),
+                key -> {
+                    resolvedKeys.add(key);
+                    if (key.endsWith("Broken")) {
+                        throw new IllegalStateException("simulated on-demand failure");
+                    }
+                    return key.endsWith("Known") ? "lazy-value" : null;
+                })) {
+            manager.load();
+
+            assertEquals("lazy-value", manager.getProperty("bt.acc.Sys.Known"));
+            assertEquals("fallback", manager.getProperty("bt.acc.Sys.Unknown", "fallback"));
+            assertNull(manager.getProperty("bt.acc.Sys.Broken"));
+            assertEquals("safe-value", manager.getProperty("bt.safe.Team.Api.password"));
+            assertNull(manager.getProperty("bt.safe.Team.Missing.password"));
+        }
+
+        assertEquals(List.of("bt.acc.Sys.Known", "bt.acc.Sys.Unknown", "bt.acc.Sys.Broken"), resolvedKeys);
+    }
+
+    @Test
+    @DisplayName("currentSnapshot generation ile damgalanmali ve refresh sonrasi eski handle degismemeli")
+    void currentSnapshotIsGenerationStampedAndImmutable() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        AtomicInteger calls = new AtomicInteger();
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, () -> calls.incrementAndGet() < 3
+                ? orderedMap("bt.safe.Db.Main.username", "app", "bt.safe.Db.Main.password", "pass-1")
+                : orderedMap("bt.safe.Db.Main.username", "app", "bt.safe.Db.Main.password", "pass-2"))) {
+            assertEquals(0, manager.currentSnapshot().getGeneration());
+            manager.load();
+
+            BeyondTrustSnapshot first = manager.currentSnapshot();
+            assertEquals(1, first.getGeneration());
+
+            invokePrivate(manager, "refreshInternal");
+            BeyondTrustSnapshot unchanged = manager.currentSnapshot();
+            assertEquals(2, unchanged.getGeneration());
+            assertEquals(first.getContentHash(), unchanged.getContentHash());
+
+            invokePrivate(manager, "refreshInternal");
+            BeyondTrustSnapshot rotated = manager.currentSnapshot();
+            assertEquals(3, rotated.getGeneration());
+            assertNotEquals(first.getContentHash(), rotated.getContentHash());
+            assertEquals("pass-1", first.getProperty("bt.safe.Db.Main.password"));
+            assertEquals(Map.of("bt.safe.Db.Main.username", "app", "bt.safe.Db.Main.password", "pass-2"),
+                    manager.getProperties(List.of("bt.safe.Db.Main.username", "bt.safe.Db.Main.password")));
+        }
+    }
+
+    @Test
+    @DisplayName("getProperties snapshotta olmayan bt.acc keyleri icin lazy resolver kullanmali")
+    void getPropertiesUsesLazyResolverForMissingManagedAccountKeys() {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options,
+                () -> Map.of("bt.safe.Team.Api.password", "safe-value"),
+                key -> key.endsWith("Known") ? "lazy-value" : null)) {
+            manager.load();
+
+            assertEquals(Map.of("bt.safe.Team.Api.password", "safe-value", "bt.acc.Sys.Known", "lazy-value"),
+                    manager.getProperties(List.of("bt.safe.Team.Api.password", "bt.acc.Sys.Known", "bt.acc.Sys.Unknown", "bt.safe.Missing")));
+            assertEquals(Map.of("bt.safe.Team.Api.password", "safe-value"), manager.getProperties(List.of("bt.safe.Team.Api.password")));
+            assertThrows(NullPointerException.class, () -> manager.getProperties(null));
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot cache varsa ilk yukleme beklenmeden cache degerleri sunulmali ve yeni snapshot cache'e yazilmali")
+    void loadServesCachedSnapshotWhileInitialLoadRunsInBackground(@TempDir Path tempDir) throws Exception {
+        Path cacheFile = tempDir.resolve("snapshot.bin");
+        new SnapshotFileCache(cacheFile, "cache-key", Duration.ofHours(1), Clock.systemUTC())
+                .write(Map.of("bt.acc.Sys.Account", "cached-value"));
+
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+        options.setSnapshotCachePath(cacheFile.toString());
+        options.setSnapshotCacheKey("cache-key");
+
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, () -> {
+            assertTrue(releaseLoader.await(5, TimeUnit.SECONDS));
+            return Map.of("bt.acc.Sys.Account", "fresh-value");
+        })) {
+            manager.load();
+            manager.addChangeListener(event -> changed.countDown());
+
+            assertEquals("cached-value", manager.getProperty("bt.acc.Sys.Account"));
+
+            releaseLoader.countDown();
+            assertTrue(changed.await(5, TimeUnit.SECONDS));
+            assertEquals("fresh-value", manager.getProperty("bt.acc.Sys.Account"));
+
+            SnapshotFileCache cache = new SnapshotFileCache(cacheFile, "cache-key", Duration.ofHours(1), Clock.systemUTC());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!Map.of("bt.acc.Sys.Account", "fresh-value").equals(cache.read()) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(Map.of("bt.acc.Sys.Account", "fresh-value"), cache.read());
+        }
+    }
+
+    @Test
+    @DisplayName("getAllProperties ayni snapshot icin kopya olusturmadan ayni read-only view'i donmeli")
+    void getAllPropertiesReturnsSharedReadOnlyViewPerSnapshot() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        AtomicInteger loads = new AtomicInteger();
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options,
+                () -> Map.of("bt.acc.Sys.Account", "value-" + loads.incrementAndGet()))) {
+            manager.load();
+
+            var properties = manager.getAllProperties();
+            assertSame(properties, manager.getAllProperties());
+            assertEquals("value-1", properties.getProperty("bt.acc.Sys.Account"));
+            assertEquals(Map.of("bt.acc.Sys.Account", "value-1"), manager.getPropertyMap());
+            assertThrows(UnsupportedOperationException.class, () -> properties.setProperty("key", "value"));
+            assertThrows(UnsupportedOperationException.class, () -> manager.getPropertyMap().put("key", "value"));
+
+            invokePrivate(manager, "refreshInternal");
+
+            assertNotSame(properties, manager.getAllProperties());
+            assertEquals("value-1", properties.getProperty("bt.acc.Sys.Account"));
+            assertEquals("value-2", manager.getAllProperties().getProperty("bt.acc.Sys.Account"));
+        }
+    }
+
+    @Test
+    @DisplayName("Prefix ve subtree sorgulari guncel snapshot uzerinden calismali")
+    void prefixAndSubtreeQueriesUseCurrentSnapshot() {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(0);
+
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, () -> orderedMap(
+                "bt.acc.Sys.Root", "root-pass",
+                "bt.safe.Folder.Title.password", "safe-pass",
+                "bt.safe.Folder.Title.username", "safe-user",
+                "bt.safe.Other.Title.password", "other-pass"))) {
+            manager.load();
+
+            assertEquals(orderedMap(
+                    "bt.safe.Folder.Title.password", "safe-pass",
+                    "bt.safe.Folder.Title.username", "safe-user"), manager.getPropertiesByPrefix("bt.safe.Folder."));
+            assertEquals(Map.of("Title.password", "safe-pass", "Title.username", "safe-user"),
+                    manager.getSubtree("bt.safe.Folder"));
+            assertEquals(Map.of("Root", "root-pass"), manager.getSubtree("bt.acc.Sys"));
+            assertThrows(NullPointerException.class, () -> manager.getPropertiesByPrefix(null));
+        }
+    }
+
+    private static Map<String, String> orderedMap(String... keyValues) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int index = 0; index < keyValues.length; index += 2) {
+            map.put(keyValues[index], keyValues[index + 1]);
+        }
+        return map;
+    }
+
+    private static void setScheduler(BeyondTrustConfigurationManager manager, ScheduledExecutorService scheduler) throws Exception {
+        var schedulerField = BeyondTrustConfigurationManager.class.getDeclaredField("scheduler");
+        schedulerField.setAccessible(true);
+        schedulerField.set(manager, scheduler);
+    }
+
     private static void invokePrivate(Object instance, String methodName) throws Exception {
         Method method = instance.getClass().getDeclaredMethod(methodName);
         method.setAccessible(true);
@@ -355,9 +1149,9 @@ class BeyondTrustConfigurationManagerTest {
     }
 
     @SuppressWarnings("unchecked")
-    private static java.util.List<String> invokeValidateRequiredSettings(BeyondTrustConfigurationManager manager) throws Exception {
+    private static List<String> invokeValidateRequiredSettings(BeyondTrustConfigurationManager manager) throws Exception {
         Method method = BeyondTrustConfigurationManager.class.getDeclaredMethod("validateRequiredSettings");
         method.setAccessible(true);
-        return (java.util.List<String>) method.invoke(manager);
+        return (List<String>) method.invoke(manager);
     }
 }
@@ -0,0 +1,49 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeyondTrustJsonTest {
+
+    @Test
+    @DisplayName("RequestID alan adi buyuk kucuk harf farkina bakilmadan okunmali")
+    void parseRequestIdMatchesFieldNameIgnoringCase() {
+        assertEquals("42", BeyondTrustJson.parseRequestId("{\"requestid\":42}"));
+        assertEquals("r-1", BeyondTrustJson.parseRequestId("{\"Other\":{\"RequestID\":9},\"REQUESTID\":\"r-1\"}"));
+        assertEquals("", BeyondTrustJson.parseRequestId("[{\"RequestID\":1}]"));
+        assertEquals("", BeyondTrustJson.parseRequestId("null"));
+    }
+
+    @Test
+    @DisplayName("Bozuk JSON payload tirnaklari temizlenerek donmeli")
+    void malformedPayloadFallsBackToRawText() {
+        assertEquals("{RequestID:7", BeyondTrustJson.parseRequestId("{\"RequestID\":7"));
+        assertEquals("{Password:x,", BeyondTrustJson.parseCredentialValue(" {\"Password\":\"x\", "));
+    }
+
+    @Test
+    @DisplayName("Credential alani Password alanindan once tercih edilmeli")
+    void parseCredentialValuePrefersCredentialOverPassword() {
+        assertEquals("cred", BeyondTrustJson.parseCredentialValue("{\"password\":\"pwd\",\"CREDENTIAL\":\"cred\"}"));
+        assertEquals("pwd", BeyondTrustJson.parseCredentialValue("{\"Nested\":[1,{\"Credential\":\"x\"}],\"Password\":\"pwd\"}"));
+        assertEquals("quoted", BeyondTrustJson.parseCredentialValue("\"quoted\""));
+        assertEquals("123", BeyondTrustJson.parseCredentialValue("123"));
+        assertEquals("", BeyondTrustJson.parseCredentialValue("{\"Credential\":{\"value\":1}}"));
+    }
+
+    @Test
+    @DisplayName("Istenen ust seviye alanlar tek geciste okunmali")
+    void readObjectFieldsReturnsRequestedTopLevelValues() throws IOException {
+        assertArrayEquals(new String[]{"token", "3600"},
+                BeyondTrustJson.readObjectFields("{\"token_type\":\"Bearer\",\"EXPIRES_IN\":3600,\"access_token\":\"token\"}",
+                        "access_token", "expires_in"));
+        assertArrayEquals(new String[]{null}, BeyondTrustJson.readObjectFields("", "access_token"));
+        assertArrayEquals(new String[]{null}, BeyondTrustJson.readObjectFields(null, "access_token"));
+        assertArrayEquals(new String[]{null}, BeyondTrustJson.readObjectFields("[1,2]", "access_token"));
+        assertThrows(IOException.class, () -> BeyondTrustJson.readObjectFields("{\"access_token\":", "access_token"));
+    }
+}
@@ -5,13 +5,41 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import javax.net.ssl.SSLContext;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 class BeyondTrustServiceTest {
@@ -50,7 +78,7 @@ class BeyondTrustServiceTest {
 
         HttpClient client = mock(HttpClient.class);
         HttpResponse<String> signInResponse = mockResponse(200, "{}");
-        HttpResponse<String> secretSafeResponse = mockResponse(200, "[{\"Folder\":\"FolderA\",\"Title\":\"TitleA\",\"Account\":\"account-user\",\"Password\":\"secret-value\"}]");
+        HttpResponse<InputStream> secretSafeResponse = mockStreamResponse(200, "[{\"Folder\":\"FolderA\",\"Title\":\"TitleA\",\"Account\":\"account-user\",\"Password\":\"secret-value\"}]");
         when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(signInResponse)
                 .thenReturn(secretSafeResponse);
@@ -87,7 +115,7 @@ class BeyondTrustServiceTest {
         HttpClient client = mock(HttpClient.class);
         HttpResponse<String> tokenResponse = mockResponse(200, "{\"access_token\":\"oauth-token\"}");
         HttpResponse<String> signInResponse = mockResponse(200, "{}");
-        HttpResponse<String> secretSafeResponse = mockResponse(200, "[]");
+        HttpResponse<InputStream> secretSafeResponse = mockStreamResponse(200, "[]");
         when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(tokenResponse)
                 .thenReturn(signInResponse)
@@ -125,7 +153,7 @@ class BeyondTrustServiceTest {
 
         HttpClient client = mock(HttpClient.class);
         HttpResponse<String> signInResponse = mockResponse(200, "{}");
-        HttpResponse<String> managedAccountsResponse = mockResponse(200, "[{\"SystemName\":\"System A\",\"AccountName\":\"Account A\",\"SystemID\":11,\"AccountID\":22}]");
+        HttpResponse<InputStream> managedAccountsResponse = mockStreamResponse(200, "[{\"SystemName\":\"System A\",\"AccountName\":\"Account A\",\"SystemID\":11,\"AccountID\":22}]");
         HttpResponse<String> createRequestResponse = mockResponse(409, "{}");
         HttpResponse<String> existingRequestResponse = mockResponse(200, "[{\"RequestID\":444,\"SystemID\":11,\"AccountID\":22}]");
         HttpResponse<String> credentialResponse = mockResponse(200, "\"managed-password\"");
@@ -144,6 +172,728 @@ class BeyondTrustServiceTest {
         assertEquals("managed-password", snapshot.get("bt.acc.System A.Account A"));
     }
 
+    @Test
+    @DisplayName("Fetch concurrency verildiginde account flowlari paralel calismali ve snapshot sirasi korunmali")
+    void concurrentManagedAccountFetchKeepsDeterministicOrder() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setAllManagedAccountsEnabled(true);
+        options.setFetchConcurrency(3);
+
+        CountDownLatch credentialCalls = new CountDownLatch(3);
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"C\",\"SystemID\":1,\"AccountID\":3},"
+                        + "{\"SystemName\":\"Sys\",\"AccountName\":\"A\",\"SystemID\":1,\"AccountID\":1},"
+                        + "{\"SystemName\":\"Sys\",\"AccountName\":\"B\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                return mockResponse(200, String.valueOf(100 + extractAccountId(request)));
+            }
+
+            if (path.contains("/Credentials/")) {
+                credentialCalls.countDown();
+                assertTrue(credentialCalls.await(5, TimeUnit.SECONDS), "credential flows should overlap");
+                return mockResponse(200, "\"password-" + path.substring(path.lastIndexOf('/') + 1) + "\"");
+            }
+
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            Map<String, String> snapshot = service.fetchAllSecrets();
+
+            assertEquals(List.of("bt.acc.Sys.C", "bt.acc.Sys.A", "bt.acc.Sys.B"), new ArrayList<>(snapshot.keySet()));
+            assertEquals("password-103", snapshot.get("bt.acc.Sys.C"));
+            assertEquals("password-101", snapshot.get("bt.acc.Sys.A"));
+            assertEquals("password-102", snapshot.get("bt.acc.Sys.B"));
+        }
+    }
+
+    @Test
+    @DisplayName("fetchSnapshot tek bir account veya Secret Safe path hatasinda diger itemlari dondurmeli")
+    void fetchSnapshotIsolatesItemFailures() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setAllManagedAccountsEnabled(true);
+        options.setSecretSafePaths("FolderA,FolderB");
+        options.setFetchConcurrency(2);
+
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"A\",\"SystemID\":1,\"AccountID\":1},"
+                        + "{\"SystemName\":\"Sys\",\"AccountName\":\"B\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                int accountId = extractAccountId(request);
+                return accountId == 2 ? mockResponse(500, "") : mockResponse(200, String.valueOf(100 + accountId));
+            }
+
+            if (path.contains("/Credentials/")) {
+                return mockResponse(200, "\"password-" + path.substring(path.lastIndexOf('/') + 1) + "\"");
+            }
+
+            if (path.endsWith("/Secrets-Safe/Secrets")) {
+                return request.uri().getQuery().contains("FolderB")
+                        ? mockStreamResponse(500, "")
+                        : mockStreamResponse(200, "[{\"Folder\":\"FolderA\",\"Title\":\"Db\",\"Password\":\"safe-a\"}]");
+            }
+
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            FetchResult result = service.fetchSnapshot();
+
+            assertEquals(Map.of("bt.acc.Sys.A", "password-101", "bt.safe.FolderA.Db.password", "safe-a"), result.entries());
+            assertEquals(Set.of("bt.acc.Sys.B"), result.failedKeys());
+            assertTrue(result.isPartial());
+            assertTrue(result.isFailed("bt.acc.Sys.B"));
+            assertFalse(result.isFailed("bt.safe.FolderB.Db.password"));
+            assertFalse(result.isFailed("bt.safe.FolderA.Db.password"));
+
+            assertThrows(IllegalStateException.class, service::fetchAllSecrets);
+        }
+    }
+
+    @Test
+    @DisplayName("Basarisiz Secret Safe path'i son basarili fetch'teki item folder keylerini failed olarak isaretlemeli")
+    void fetchSnapshotMarksLastKnownKeysOfFailedSecretSafePath() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSecretSafePaths("FolderA,Team/Db");
+
+        AtomicBoolean teamFolderFailing = new AtomicBoolean();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/Secrets-Safe/Secrets")) {
+                if (!request.uri().getQuery().contains("Team/Db")) {
+                    return mockStreamResponse(200, "[{\"Folder\":\"FolderA\",\"Title\":\"Api\",\"Password\":\"safe-a\"}]");
+                }
+                return teamFolderFailing.get()
+                        ? mockStreamResponse(500, "")
+                        : mockStreamResponse(200, "[{\"Folder\":\"Db\",\"Title\":\"Main\",\"Username\":\"app\",\"Password\":\"db-pass\"},"
+                        + "{\"Folder\":\"Db/Replica\",\"Title\":\"Read\",\"Password\":\"replica-pass\"}]");
+            }
+
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            FetchResult first = service.fetchSnapshot();
+            assertFalse(first.isPartial());
+            assertEquals("db-pass", first.entries().get("bt.safe.Db.Main.password"));
+
+            teamFolderFailing.set(true);
+            FetchResult second = service.fetchSnapshot();
+
+            assertEquals(Map.of("bt.safe.FolderA.Api.password", "safe-a"), second.entries());
+            assertEquals(Set.of(
+                    "bt.safe.Db.Main.password",
+                    "bt.safe.Db.Main.username",
+                    "bt.safe.Db/Replica.Read.password"), second.failedKeys());
+            assertFalse(second.isFailed("bt.safe.FolderA.Api.password"));
+        }
+    }
+
+    @Test
+    @DisplayName("fetchSnapshot tum itemlar basarisiz oldugunda hata firlatmali")
+    void fetchSnapshotFailsWhenEveryItemFails() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSecretSafePaths("FolderA,FolderB");
+
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            return request.uri().getPath().endsWith("/Secrets-Safe/Secrets")
+                    ? mockStreamResponse(503, "")
+                    : mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            IllegalStateException exception = assertThrows(IllegalStateException.class, service::fetchSnapshot);
+            assertTrue(exception.getMessage().contains("503"));
+        }
+    }
+
+    @Test
+    @DisplayName("Secret Safe folder ETag ile kosullu istenmeli ve 304 cevabinda onceki degerler kullanilmali")
+    void secretSafeFolderUsesConditionalRequests() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSecretSafePaths("FolderA");
+
+        List<HttpRequest> secretRequests = new CopyOnWriteArrayList<>();
+        AtomicInteger notModified = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            if (!request.uri().getPath().endsWith("/Secrets-Safe/Secrets")) {
+                return mockResponse(200, "{}");
+            }
+
+            secretRequests.add(request);
+            if (request.headers().firstValue("If-None-Match").isPresent()) {
+                notModified.incrementAndGet();
+                return mockStreamResponse(304, "");
+            }
+
+            return mockStreamResponse(200, "[{\"Folder\":\"FolderA\",\"Title\":\"Db\",\"Password\":\"safe-a\"}]",
+                    Map.of("ETag", List.of("\"v1\""), "Last-Modified", List.of("Wed, 21 Oct 2026 07:28:00 GMT")));
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            Map<String, String> first = service.fetchAllSecrets();
+            Map<String, String> second = service.fetchAllSecrets();
+            Map<String, String> third = service.fetchAllSecrets();
+
+            assertEquals(Map.of("bt.safe.FolderA.Db.password", "safe-a"), first);
+            assertEquals(first, second);
+            assertEquals(first, third);
+            assertEquals(new BeyondTrustSnapshot(first).getContentHash(), new BeyondTrustSnapshot(third).getContentHash());
+            assertEquals(3, secretRequests.size());
+            assertEquals(2, notModified.get());
+            assertTrue(secretRequests.get(0).headers().firstValue("If-None-Match").isEmpty());
+            for (HttpRequest conditional : secretRequests.subList(1, 3)) {
+                assertEquals(Optional.of("\"v1\""), conditional.headers().firstValue("If-None-Match"));
+                assertEquals(Optional.of("Wed, 21 Oct 2026 07:28:00 GMT"), conditional.headers().firstValue("If-Modified-Since"));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("ETag gondermeyen serverda ayni icerik ayni snapshot hash'ini, degisen icerik yeni degerleri uretmeli")
+    void secretSafeFolderReusesEntriesWhenContentHashMatches() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSecretSafePaths("FolderA");
+
+        AtomicInteger secretCalls = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            if (!request.uri().getPath().endsWith("/Secrets-Safe/Secrets")) {
+                return mockResponse(200, "{}");
+            }
+
+            assertTrue(request.headers().firstValue("If-None-Match").isEmpty());
+            String password = secretCalls.incrementAndGet() < 3 ? "safe-a" : "rotated";
+            return mockStreamResponse(200, "[{\"Folder\":\"FolderA\",\"Title\":\"Db\",\"Password\":\"" + password + "\"}]");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            Map<String, String> first = service.fetchAllSecrets();
+            Map<String, String> unchanged = service.fetchAllSecrets();
+            Map<String, String> rotated = service.fetchAllSecrets();
+
+            assertEquals(3, secretCalls.get());
+            assertEquals(Map.of("bt.safe.FolderA.Db.password", "safe-a"), unchanged);
+            assertEquals(new BeyondTrustSnapshot(first).getContentHash(), new BeyondTrustSnapshot(unchanged).getContentHash());
+            assertEquals(Map.of("bt.safe.FolderA.Db.password", "rotated"), rotated);
+            assertNotEquals(new BeyondTrustSnapshot(first).getContentHash(), new BeyondTrustSnapshot(rotated).getContentHash());
+        }
+    }
+
+    @Test
+    @DisplayName("Managed account katalogu TTL boyunca tekrar cekilmemeli, suresi dolunca arka planda yenilenmeli")
+    void managedAccountCatalogIsCachedAndRefreshedInBackground() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setAllManagedAccountsEnabled(true);
+        options.setAccountCatalogTtlSeconds(600);
+
+        AtomicInteger catalogCalls = new AtomicInteger();
+        Function<HttpRequest, HttpResponse<?>> router = request -> {
+            String path = request.uri().getPath();
+            if (path.endsWith("/ManagedAccounts")) {
+                String accounts = "{\"SystemName\":\"Sys\",\"AccountName\":\"A\",\"SystemID\":1,\"AccountID\":1}";
+                if (catalogCalls.incrementAndGet() > 1) {
+                    accounts += ",{\"SystemName\":\"Sys\",\"AccountName\":\"B\",\"SystemID\":1,\"AccountID\":2}";
+                }
+                return mockStreamResponse(200, "[" + accounts + "]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                return mockResponse(200, "7");
+            }
+            if (path.contains("/Credentials/")) {
+                return mockResponse(200, "\"secret\"");
+            }
+            return mockResponse(200, "{}");
+        };
+
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> router.apply(invocation.getArgument(0)));
+        stubAsyncRoutes(client, router);
+
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        try (BeyondTrustService service = new BeyondTrustService(options, client, clock)) {
+            assertEquals(Set.of("bt.acc.Sys.A"), service.fetchAllSecrets().keySet());
+            clock.advance(Duration.ofSeconds(599));
+            assertEquals(Set.of("bt.acc.Sys.A"), service.fetchAllSecrets().keySet());
+            assertEquals(1, catalogCalls.get());
+
+            clock.advance(Duration.ofSeconds(1));
+            assertEquals(Set.of("bt.acc.Sys.A"), service.fetchAllSecrets().keySet());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            Map<String, String> refreshed = service.fetchAllSecrets();
+            while (!refreshed.containsKey("bt.acc.Sys.B") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                refreshed = service.fetchAllSecrets();
+            }
+
+            assertEquals(Set.of("bt.acc.Sys.A", "bt.acc.Sys.B"), refreshed.keySet());
+            assertEquals(2, catalogCalls.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Arka plan katalog yenilemesi basarisiz olursa onceki katalog kullanilmaya devam etmeli")
+    void managedAccountCatalogKeepsCachedValueWhenBackgroundRefreshFails() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setManagedAccounts("Sys.A");
+        options.setLazyManagedAccountsEnabled(true);
+        options.setAccountCatalogTtlSeconds(60);
+
+        AtomicInteger asyncCatalogCalls = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            return request.uri().getPath().endsWith("/ManagedAccounts")
+                    ? mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"A\",\"SystemID\":1,\"AccountID\":1}]")
+                    : mockResponse(200, "{}");
+        });
+        stubAsyncRoutes(client, request -> {
+            asyncCatalogCalls.incrementAndGet();
+            return mockStreamResponse(500, "");
+        });
+
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        try (BeyondTrustService service = new BeyondTrustService(options, client, clock)) {
+            service.fetchAllSecrets();
+            clock.advance(Duration.ofSeconds(61));
+            service.fetchAllSecrets();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (asyncCatalogCalls.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            service.fetchAllSecrets();
+
+            assertTrue(asyncCatalogCalls.get() >= 1);
+            verify(client, times(1)).send(argThat(request -> request.uri().getPath().endsWith("/ManagedAccounts")), any());
+        }
+    }
+
+    @Test
+    @DisplayName("Secret Safe pathleri paralel cekilmeli ve snapshot konfigurasyon sirasiyla birlesmeli")
+    void concurrentSecretSafeFetchMergesInConfiguredOrder() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSecretSafePaths("Team/C;Team/A,Team/B");
+        options.setFetchConcurrency(3);
+
+        CountDownLatch pathCalls = new CountDownLatch(3);
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String query = request.uri().getQuery();
+
+            if (query != null && query.startsWith("Path=")) {
+                String path = query.substring("Path=".length());
+                pathCalls.countDown();
+                assertTrue(pathCalls.await(5, TimeUnit.SECONDS), "Secret Safe path fetches should overlap");
+                return mockStreamResponse(200, "[{\"Folder\":\"" + path + "\",\"Title\":\"Api\",\"Password\":\"" + path + "-password\"}]");
+            }
+
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            Map<String, String> snapshot = service.fetchAllSecrets();
+
+            assertEquals(List.of(
+                    "bt.safe.Team/C.Api.password",
+                    "bt.safe.Team/A.Api.password",
+                    "bt.safe.Team/B.Api.password"), new ArrayList<>(snapshot.keySet()));
+            assertEquals("Team/A-password", snapshot.get("bt.safe.Team/A.Api.password"));
+        }
+    }
+
+    @Test
+    @DisplayName("fetchAllSecretsAsync tum pipelinei sendAsync ile calistirmali ve blocking send kullanmamali")
+    void fetchAllSecretsAsyncUsesSendAsyncPipeline() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(true);
+        options.setClientId("client-id");
+        options.setClientSecret("client-secret");
+        options.setManagedAccounts("Sys.Acc");
+        options.setSecretSafePaths("FolderA");
+        options.setCredentialPollInitialDelayMillis(10);
+
+        List<String> credentialStatuses = new ArrayList<>(List.of("404", "200"));
+        HttpClient client = mock(HttpClient.class);
+        stubAsyncRoutes(client, request -> {
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/Auth/Connect/Token")) {
+                return mockResponse(200, "{\"access_token\":\"oauth-token\"}");
+            }
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"Acc\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                return mockResponse(201, "77");
+            }
+            if (path.endsWith("/Credentials/77")) {
+                int status = Integer.parseInt(credentialStatuses.remove(0));
+                return mockResponse(status, status == 200 ? "\"managed-password\"" : "{}");
+            }
+            if (path.endsWith("/Secrets-Safe/Secrets")) {
+                return mockStreamResponse(200, "[{\"Title\":\"Api\",\"Username\":\"api-user\",\"Password\":\"api-password\"}]");
+            }
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            Map<String, String> snapshot = service.fetchAllSecretsAsync().get(10, TimeUnit.SECONDS);
+
+            assertEquals("managed-password", snapshot.get("bt.acc.Sys.Acc"));
+            assertEquals("api-password", snapshot.get("bt.safe.FolderA.Api.password"));
+            assertEquals("api-user", snapshot.get("bt.safe.FolderA.Api.username"));
+        }
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(client, atLeastOnce()).sendAsync(requestCaptor.capture(), any());
+        assertTrue(requestCaptor.getAllValues().stream()
+                .anyMatch(request -> request.uri().getPath().endsWith("/Requests/77/Checkin")));
+        verify(client, never()).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    @DisplayName("Async modda stream body handler govdeyi bloklamadan bufferlamali, sync modda dogrudan stream etmeli")
+    void streamBodyHandlerBuffersAsyncBodiesWithoutBlocking() throws Exception {
+        HttpResponse.ResponseInfo responseInfo = mock(HttpResponse.ResponseInfo.class);
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+
+        HttpResponse.BodySubscriber<InputStream> buffered = BeyondTrustService.streamBodyHandler(true).apply(responseInfo);
+        buffered.onSubscribe(subscription);
+        buffered.onNext(List.of(ByteBuffer.wrap("[{\"Title\":".getBytes(StandardCharsets.UTF_8))));
+        assertFalse(buffered.getBody().toCompletableFuture().isDone());
+
+        buffered.onNext(List.of(ByteBuffer.wrap("\"Api\"}]".getBytes(StandardCharsets.UTF_8))));
+        buffered.onComplete();
+        try (InputStream body = buffered.getBody().toCompletableFuture().get(1, TimeUnit.SECONDS)) {
+            assertEquals("[{\"Title\":\"Api\"}]", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        HttpResponse.BodySubscriber<InputStream> streaming = BeyondTrustService.streamBodyHandler(false).apply(responseInfo);
+        streaming.onSubscribe(subscription);
+        assertTrue(streaming.getBody().toCompletableFuture().isDone());
+        streaming.getBody().toCompletableFuture().get().close();
+
+        HttpClient client = mock(HttpClient.class);
+        stubAsyncRoutes(client, request -> request.uri().getPath().endsWith("/Secrets-Safe/Secrets")
+                ? mockStreamResponse(200, "[{\"Title\":\"Api\",\"Password\":\"api-password\"}]")
+                : mockResponse(200, "{}"));
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSecretSafePaths("FolderA");
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            assertEquals("api-password", service.fetchAllSecretsAsync().get(10, TimeUnit.SECONDS).get("bt.safe.FolderA.Api.password"));
+        }
+
+        ArgumentCaptor<HttpResponse.BodyHandler<?>> handlerCaptor = ArgumentCaptor.forClass(HttpResponse.BodyHandler.class);
+        verify(client).sendAsync(argThat(request -> request.uri().getPath().endsWith("/Secrets-Safe/Secrets")), handlerCaptor.capture());
+        HttpResponse.BodySubscriber<?> subscriber = handlerCaptor.getValue().apply(responseInfo);
+        subscriber.onSubscribe(subscription);
+        assertFalse(subscriber.getBody().toCompletableFuture().isDone());
+    }
+
+    @Test
+    @DisplayName("fetchAllSecretsAsync hata durumunda future IllegalStateException ile tamamlanmali")
+    void fetchAllSecretsAsyncCompletesExceptionallyOnFailure() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setAllManagedAccountsEnabled(true);
+
+        HttpClient client = mock(HttpClient.class);
+        stubAsyncRoutes(client, request -> request.uri().getPath().endsWith("/ManagedAccounts")
+                ? mockResponse(500, "")
+                : mockResponse(200, "{}"));
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            CompletableFuture<Map<String, String>> result = service.fetchAllSecretsAsync();
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+            assertTrue(exception.getCause().getMessage().contains("ManagedAccounts failed with status 500"));
+        }
+    }
+
+    @Test
+    @DisplayName("OAuth token gecerliyken refreshler ayni sessioni kullanmali, expire olunca yeniden login olmali")
+    void oauthSessionIsReusedUntilTokenExpires() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(true);
+        options.setClientId("client-id");
+        options.setClientSecret("client-secret");
+        options.setSecretSafePaths("FolderA");
+
+        AtomicInteger tokenCalls = new AtomicInteger();
+        AtomicInteger signInCalls = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            String path = ((HttpRequest) invocation.getArgument(0)).uri().getPath();
+            if (path.endsWith("/Auth/Connect/Token")) {
+                return mockResponse(200, "{\"access_token\":\"token-" + tokenCalls.incrementAndGet() + "\",\"expires_in\":3600}");
+            }
+            if (path.endsWith("/Auth/SignAppin")) {
+                signInCalls.incrementAndGet();
+            }
+            return path.endsWith("/Secrets-Safe/Secrets") ? mockStreamResponse(200, "[]") : mockResponse(200, "{}");
+        });
+
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        try (BeyondTrustService service = new BeyondTrustService(options, client, clock)) {
+            service.fetchAllSecrets();
+            clock.advance(Duration.ofMinutes(30));
+            service.fetchAllSecrets();
+
+            assertEquals(1, tokenCalls.get());
+            assertEquals(1, signInCalls.get());
+
+            clock.advance(Duration.ofMinutes(30));
+            service.fetchAllSecrets();
+
+            assertEquals(2, tokenCalls.get());
+            assertEquals(2, signInCalls.get());
+        }
+    }
+
+    @Test
+    @DisplayName("401 donen cagri bir kez yeniden authenticate edilip tekrar denenmeli")
+    void unauthorizedResponseReauthenticatesOnce() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSecretSafePaths("FolderA");
+
+        AtomicInteger signInCalls = new AtomicInteger();
+        AtomicInteger secretSafeCalls = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            String path = ((HttpRequest) invocation.getArgument(0)).uri().getPath();
+            if (path.endsWith("/Auth/SignAppin")) {
+                signInCalls.incrementAndGet();
+                return mockResponse(200, "{}");
+            }
+            if (secretSafeCalls.incrementAndGet() % 2 == 1) {
+                return mockResponse(401, "");
+            }
+            return mockStreamResponse(200, "[{\"Title\":\"Api\",\"Password\":\"secret\"}]");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            assertEquals("secret", service.fetchAllSecrets().get("bt.safe.FolderA.Api.password"));
+            assertEquals(2, signInCalls.get());
+            assertEquals(2, secretSafeCalls.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Yeniden authenticate sonrasi da 401 donerse refresh fail olmali ve tekrar login denenmemeli")
+    void persistentUnauthorizedResponseFailsAfterSingleRetry() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSecretSafePaths("FolderA");
+
+        AtomicInteger signInCalls = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            String path = ((HttpRequest) invocation.getArgument(0)).uri().getPath();
+            if (path.endsWith("/Auth/SignAppin")) {
+                signInCalls.incrementAndGet();
+                return mockResponse(200, "{}");
+            }
+            return mockResponse(401, "");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            IllegalStateException exception = assertThrows(IllegalStateException.class, service::fetchAllSecrets);
+
+            assertTrue(exception.getMessage().contains("failed with status 401"));
+            assertEquals(2, signInCalls.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Lazy mode refreshte sadece catalog yuklemeli, credential ilk okumada cekilip TTL boyunca cachelenmeli")
+    void lazyModeLoadsCatalogAndFetchesCredentialOnDemand() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setAllManagedAccountsEnabled(true);
+        options.setLazyManagedAccountsEnabled(true);
+        options.setLazyCredentialTtlSeconds(60);
+
+        AtomicInteger requestCalls = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"A\",\"SystemID\":1,\"AccountID\":1},"
+                        + "{\"SystemName\":\"Sys\",\"AccountName\":\"B\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                return mockResponse(200, String.valueOf(requestCalls.incrementAndGet()));
+            }
+            if (path.contains("/Credentials/")) {
+                return mockResponse(200, "\"password-" + path.substring(path.lastIndexOf('/') + 1) + "\"");
+            }
+            return mockResponse(200, "{}");
+        });
+
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        try (BeyondTrustService service = new BeyondTrustService(options, client, clock)) {
+            Map<String, String> snapshot = service.fetchAllSecrets();
+
+            assertTrue(snapshot.isEmpty());
+            assertEquals(0, requestCalls.get());
+
+            assertEquals("password-1", service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertEquals("password-1", service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertNull(service.resolveLazyCredential("bt.acc.Sys.Unknown"));
+            assertEquals(1, requestCalls.get());
+
+            clock.advance(Duration.ofSeconds(61));
+
+            assertEquals("password-2", service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertEquals(2, requestCalls.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Lazy credential hatasi backoff suresince tekrar denenmemeli ve stale deger beklemeden donmeli")
+    void lazyCredentialFailureBacksOffAndServesStaleValue() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setAllManagedAccountsEnabled(true);
+        options.setLazyManagedAccountsEnabled(true);
+        options.setLazyCredentialTtlSeconds(60);
+
+        AtomicInteger requestCalls = new AtomicInteger();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"A\",\"SystemID\":1,\"AccountID\":1}]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                int call = requestCalls.incrementAndGet();
+                return failing.get() ? mockResponse(500, "locked") : mockResponse(200, String.valueOf(call));
+            }
+            if (path.contains("/Credentials/")) {
+                return mockResponse(200, "\"password-" + path.substring(path.lastIndexOf('/') + 1) + "\"");
+            }
+            return mockResponse(200, "{}");
+        });
+
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        try (BeyondTrustService service = new BeyondTrustService(options, client, clock)) {
+            service.fetchAllSecrets();
+
+            assertNull(service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertNull(service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertEquals(1, requestCalls.get());
+
+            clock.advance(Duration.ofSeconds(6));
+            assertNull(service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertEquals(2, requestCalls.get());
+
+            clock.advance(Duration.ofSeconds(6));
+            assertNull(service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertEquals(2, requestCalls.get());
+
+            failing.set(false);
+            clock.advance(Duration.ofSeconds(5));
+            assertEquals("password-3", service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertEquals(3, requestCalls.get());
+
+            failing.set(true);
+            clock.advance(Duration.ofSeconds(61));
+            assertEquals("password-3", service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertEquals("password-3", service.resolveLazyCredential("bt.acc.Sys.A"));
+            assertEquals(4, requestCalls.get());
+        }
+    }
+
     @Test
     @DisplayName("parseRequestId object string ve numeric payload formatlarini desteklemeli")
     void parseRequestIdSupportsMultiplePayloadShapes() {
@@ -152,6 +902,97 @@ class BeyondTrustServiceTest {
         assertEquals("789", BeyondTrustService.parseRequestId("789"));
     }
 
+    @Test
+    @DisplayName("HttpClient yapilandirilan HTTP version, connect timeout ve executor ile olusturulmali")
+    void createHttpClientUsesConfiguredTransportSettings() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            BeyondTrustOptions options = new BeyondTrustOptions();
+            options.setHttpVersion(HttpClient.Version.HTTP_2);
+            options.setConnectTimeoutSeconds(7);
+            options.setHttpExecutor(executor);
+
+            HttpClient client = BeyondTrustService.createHttpClient(options, null);
+
+            assertEquals(HttpClient.Version.HTTP_2, client.version());
+            assertEquals(Optional.of(Duration.ofSeconds(7)), client.connectTimeout());
+            assertEquals(Optional.of(executor), client.executor());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Servisin olusturdugu HTTP executor HttpClient'a verilmeli ve close ile kapatilmali")
+    void ownedHttpExecutorIsUsedByClientAndShutDownOnClose() {
+        ExecutorService ownedExecutor = Executors.newSingleThreadExecutor();
+        ExecutorService callerExecutor = Executors.newSingleThreadExecutor();
+        try {
+            BeyondTrustOptions options = new BeyondTrustOptions();
+            assertEquals(Optional.of(ownedExecutor), BeyondTrustService.createHttpClient(options, ownedExecutor).executor());
+
+            options.setHttpExecutor(callerExecutor);
+            assertEquals(Optional.of(callerExecutor), BeyondTrustService.createHttpClient(options, ownedExecutor).executor());
+            assertNull(BeyondTrustService.createHttpExecutor(options));
+
+            options.setHttpExecutor(null);
+            options.setVirtualThreadsEnabled(true);
+            ExecutorService created = BeyondTrustService.createHttpExecutor(options);
+            assertEquals(BeyondTrustThreads.virtualThreadsSupported(), created != null);
+            if (created != null) {
+                created.shutdown();
+            }
+
+            new BeyondTrustService(options, mock(HttpClient.class), ownedExecutor, Clock.systemUTC()).close();
+            assertTrue(ownedExecutor.isShutdown());
+            assertFalse(callerExecutor.isShutdown());
+        } finally {
+            ownedExecutor.shutdownNow();
+            callerExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Request timeout degeri tum BeyondTrust isteklerine uygulanmali")
+    void requestBuilderUsesConfiguredRequestTimeout() {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setApiUrl("https://example.local/BeyondTrust/api/public/v3");
+        options.setApiKey("key");
+        options.setRequestTimeoutSeconds(75);
+
+        BeyondTrustService service = new BeyondTrustService(options, mock(HttpClient.class));
+
+        assertEquals(Optional.of(Duration.ofSeconds(75)), service.requestBuilder("ManagedAccounts").GET().build().timeout());
+    }
+
+    @Test
+    @DisplayName("Health probe oturum acip Configuration/Version endpoint'ini cagirmali")
+    void probeSignsInAndCallsVersionEndpoint() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+
+        HttpClient client = mock(HttpClient.class);
+        HttpResponse<String> signInResponse = mockResponse(200, "{}");
+        HttpResponse<String> versionResponse = mockResponse(200, "{\"Version\":\"24.1\"}");
+        HttpResponse<String> unavailableResponse = mockResponse(503, "");
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(signInResponse)
+                .thenReturn(versionResponse)
+                .thenReturn(unavailableResponse);
+
+        BeyondTrustService service = new BeyondTrustService(options, client);
+        service.probe();
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(client, times(2)).send(requestCaptor.capture(), any());
+        assertTrue(requestCaptor.getAllValues().get(1).uri().toString().endsWith("/Configuration/Version"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, service::probe);
+        assertTrue(exception.getMessage().contains("Health probe failed with status 503"));
+    }
+
     @Test
     @DisplayName("Certificate content verildiginde custom SSL context olusturulmali")
     void createSslContextUsesCustomCertificateContent() throws Exception {
@@ -173,11 +1014,577 @@ class BeyondTrustServiceTest {
         assertNotNull(BeyondTrustService.createSslContext(options));
     }
 
+    @Test
+    @DisplayName("Credential polling yapilandirilan deneme sayisindan sonra durmali ve request check-in edilmeli")
+    void credentialPollingStopsAfterConfiguredAttempts() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setManagedAccounts("Sys.Acc");
+        options.setCredentialPollAttempts(3);
+        options.setCredentialPollInitialDelayMillis(5);
+        options.setCredentialPollMaxDelayMillis(10);
+
+        AtomicInteger credentialCalls = new AtomicInteger();
+        AtomicInteger checkIns = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"Acc\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                return mockResponse(201, "77");
+            }
+            if (path.endsWith("/Credentials/77")) {
+                credentialCalls.incrementAndGet();
+                return mockResponse(404, "{}");
+            }
+            if (path.endsWith("/Requests/77/Checkin")) {
+                checkIns.incrementAndGet();
+            }
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            IllegalStateException exception = assertThrows(IllegalStateException.class, service::fetchAllSecrets);
+
+            assertTrue(exception.getMessage().contains("Credential retrieval failed for RequestID '77'"));
+        }
+
+        assertEquals(3, credentialCalls.get());
+        assertEquals(1, checkIns.get());
+    }
+
+    @Test
+    @DisplayName("Credential polling toplam sure asildiginda kalan denemeleri beklemeden durmali")
+    void credentialPollingStopsAtDeadline() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setManagedAccounts("Sys.Acc");
+        options.setCredentialPollAttempts(10);
+        options.setCredentialPollInitialDelayMillis(5);
+        options.setCredentialPollMaxDelayMillis(10);
+        options.setCredentialPollTimeoutSeconds(3);
+
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        AtomicInteger credentialCalls = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"Acc\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                return mockResponse(201, "77");
+            }
+            if (path.endsWith("/Credentials/77")) {
+                credentialCalls.incrementAndGet();
+                clock.advance(Duration.ofSeconds(2));
+                return mockResponse(404, "{}");
+            }
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client, clock)) {
+            IllegalStateException exception = assertThrows(IllegalStateException.class, service::fetchAllSecrets);
+
+            assertTrue(exception.getMessage().contains("timed out"));
+        }
+
+        assertEquals(2, credentialCalls.get());
+    }
+
+    @Test
+    @DisplayName("Async check-in aktifken credential check-in beklenmeden donmeli ve close bekleyen check-in'leri tamamlamali")
+    void asyncCheckInDoesNotBlockFetchAndDrainsOnClose() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setManagedAccounts("Sys.Acc");
+        options.setAsyncCheckInEnabled(true);
+
+        CompletableFuture<HttpResponse<String>> checkInResponse = new CompletableFuture<>();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"Acc\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                return mockResponse(201, "77");
+            }
+            if (path.endsWith("/Credentials/77")) {
+                return mockResponse(200, "\"managed-password\"");
+            }
+            return mockResponse(200, "{}");
+        });
+        when(client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> checkInResponse);
+
+        BeyondTrustService service = new BeyondTrustService(options, client);
+        assertEquals("managed-password", service.fetchAllSecrets().get("bt.acc.Sys.Acc"));
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(client, timeout(5000)).sendAsync(requestCaptor.capture(), any());
+        assertTrue(requestCaptor.getValue().uri().getPath().endsWith("/Requests/77/Checkin"));
+        verify(client, never()).send(argThat(request -> request.uri().getPath().endsWith("/Checkin")), any());
+
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(service::close);
+        Thread.sleep(100);
+        assertFalse(closed.isDone());
+
+        checkInResponse.complete(mockResponse(200, "{}"));
+        closed.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Request lease aktifken lease suresi icindeki refresh'ler ayni request'i kullanmali ve close'da check-in yapilmali")
+    void requestLeaseReusesOpenRequestUntilNearExpiry() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setManagedAccounts("Sys.Acc");
+        options.setRequestLeaseEnabled(true);
+        options.setRequestDurationMinutes(10);
+
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        AtomicInteger requestIds = new AtomicInteger(76);
+        List<String> durations = new CopyOnWriteArrayList<>();
+        List<String> checkIns = new CopyOnWriteArrayList<>();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"Acc\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                durations.add(String.valueOf(extractField(request, "durationMinutes")));
+                return mockResponse(201, String.valueOf(requestIds.incrementAndGet()));
+            }
+            if (path.contains("/Credentials/")) {
+                return mockResponse(200, "\"password-" + path.substring(path.lastIndexOf('/') + 1) + "\"");
+            }
+            if (path.endsWith("/Checkin")) {
+                checkIns.add(path);
+            }
+            return mockResponse(200, "{}");
+        });
+
+        BeyondTrustService service = new BeyondTrustService(options, client, clock);
+        assertEquals("password-77", service.fetchAllSecrets().get("bt.acc.Sys.Acc"));
+        clock.advance(Duration.ofMinutes(5));
+        assertEquals("password-77", service.fetchAllSecrets().get("bt.acc.Sys.Acc"));
+        assertEquals(List.of("10"), durations);
+        assertTrue(checkIns.isEmpty());
+
+        clock.advance(Duration.ofMinutes(4));
+        assertEquals("password-78", service.fetchAllSecrets().get("bt.acc.Sys.Acc"));
+        assertEquals(List.of("/BeyondTrust/api/public/v3/Requests/77/Checkin"), checkIns);
+
+        service.close();
+        assertEquals(List.of(
+                "/BeyondTrust/api/public/v3/Requests/77/Checkin",
+                "/BeyondTrust/api/public/v3/Requests/78/Checkin"), checkIns);
+    }
+
+    @Test
+    @DisplayName("Async check-in aktifken lease yenilemesi eski request'i dogrudan check-in edip yeni request acmali")
+    void requestLeaseRenewalChecksInDirectlyWhenAsyncCheckInIsEnabled() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setManagedAccounts("Sys.Acc");
+        options.setRequestLeaseEnabled(true);
+        options.setRequestDurationMinutes(10);
+        options.setAsyncCheckInEnabled(true);
+
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        AtomicInteger requestIds = new AtomicInteger(76);
+        Map<String, String> openRequests = new ConcurrentHashMap<>();
+        List<String> syncCheckIns = new CopyOnWriteArrayList<>();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"Acc\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                if (openRequests.containsKey("1.2")) {
+                    return mockResponse(409, "{}");
+                }
+                String requestId = String.valueOf(requestIds.incrementAndGet());
+                openRequests.put("1.2", requestId);
+                return mockResponse(201, requestId);
+            }
+            if (path.endsWith("/Requests") && "GET".equals(request.method())) {
+                String requestId = openRequests.get("1.2");
+                return mockResponse(200, requestId == null ? "[]" : "[{\"RequestID\":" + requestId + ",\"SystemID\":1,\"AccountID\":2}]");
+            }
+            if (path.contains("/Credentials/")) {
+                return mockResponse(200, "\"password-" + path.substring(path.lastIndexOf('/') + 1) + "\"");
+            }
+            if (path.endsWith("/Checkin")) {
+                syncCheckIns.add(path);
+                openRequests.values().removeIf(path::contains);
+            }
+            return mockResponse(200, "{}");
+        });
+        when(client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            String path = ((HttpRequest) invocation.getArgument(0)).uri().getPath();
+            openRequests.values().removeIf(path::contains);
+            return CompletableFuture.completedFuture(mockResponse(200, "{}"));
+        });
+
+        BeyondTrustService service = new BeyondTrustService(options, client, clock);
+        assertEquals("password-77", service.fetchAllSecrets().get("bt.acc.Sys.Acc"));
+
+        clock.advance(Duration.ofMinutes(9));
+        assertEquals("password-78", service.fetchAllSecrets().get("bt.acc.Sys.Acc"));
+        assertEquals(List.of("/BeyondTrust/api/public/v3/Requests/77/Checkin"), syncCheckIns);
+        assertEquals("78", openRequests.get("1.2"));
+
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals("password-78", service.fetchAllSecrets().get("bt.acc.Sys.Acc"));
+        assertEquals(2, requestIds.get() - 76);
+
+        service.close();
+        verify(client, timeout(5000)).sendAsync(argThat(request -> request.uri().getPath().endsWith("/Requests/78/Checkin")), any());
+        verify(client, never()).sendAsync(argThat(request -> request.uri().getPath().endsWith("/Requests/77/Checkin")), any());
+    }
+
+    @Test
+    @DisplayName("Birden fazla 409 conflict ayni refresh icinde Requests listesini tek kez indirmeli")
+    void conflictingRequestsShareSingleRequestsLookupPerRefresh() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setAllManagedAccountsEnabled(true);
+        options.setFetchConcurrency(3);
+
+        AtomicInteger requestLookups = new AtomicInteger();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/ManagedAccounts")) {
+                return mockStreamResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"A\",\"SystemID\":1,\"AccountID\":1},"
+                        + "{\"SystemName\":\"Sys\",\"AccountName\":\"B\",\"SystemID\":1,\"AccountID\":2},"
+                        + "{\"SystemName\":\"Other\",\"AccountName\":\"A\",\"SystemID\":2,\"AccountID\":1}]");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                return mockResponse(409, "{}");
+            }
+            if (path.endsWith("/Requests") && "GET".equals(request.method())) {
+                requestLookups.incrementAndGet();
+                return mockResponse(200, "[{\"RequestID\":500,\"SystemID\":9,\"AccountID\":9},"
+                        + "{\"RequestID\":201,\"SystemID\":2,\"AccountID\":1},"
+                        + "{\"RequestID\":102,\"SystemID\":1,\"AccountID\":2},"
+                        + "{\"RequestID\":101,\"SystemID\":1,\"AccountID\":1},"
+                        + "{\"RequestID\":999,\"SystemID\":1,\"AccountID\":1}]");
+            }
+            if (path.contains("/Credentials/")) {
+                return mockResponse(200, "\"password-" + path.substring(path.lastIndexOf('/') + 1) + "\"");
+            }
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            Map<String, String> snapshot = service.fetchAllSecrets();
+
+            assertEquals("password-101", snapshot.get("bt.acc.Sys.A"));
+            assertEquals("password-102", snapshot.get("bt.acc.Sys.B"));
+            assertEquals("password-201", snapshot.get("bt.acc.Other.A"));
+            assertEquals(1, requestLookups.get());
+
+            service.fetchAllSecrets();
+            assertEquals(2, requestLookups.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Lookup threshold altindaki account listesi icin ManagedAccounts filtreli sorgularla cekilmeli")
+    void explicitAccountListUsesFilteredManagedAccountLookups() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setManagedAccounts("Sys B.Admin;Sys.Root;Sys.Missing");
+        options.setManagedAccountLookupThreshold(5);
+        options.setFetchConcurrency(3);
+
+        List<String> accountQueries = new CopyOnWriteArrayList<>();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+
+            if (path.endsWith("/ManagedAccounts")) {
+                String query = request.uri().getRawQuery();
+                accountQueries.add(String.valueOf(query));
+                if ("systemName=Sys+B&accountName=Admin".equals(query)) {
+                    return mockResponse(200, "{\"SystemName\":\"Sys B\",\"AccountName\":\"Admin\",\"SystemID\":2,\"AccountID\":1}");
+                }
+                if ("systemName=Sys&accountName=Root".equals(query)) {
+                    return mockResponse(200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"Root\",\"SystemID\":1,\"AccountID\":2}]");
+                }
+                return mockResponse(404, "{}");
+            }
+            if (path.endsWith("/Requests") && "POST".equals(request.method())) {
+                return mockResponse(200, String.valueOf(100 + extractAccountId(request)));
+            }
+            if (path.contains("/Credentials/")) {
+                return mockResponse(200, "\"password-" + path.substring(path.lastIndexOf('/') + 1) + "\"");
+            }
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            Map<String, String> snapshot = service.fetchAllSecrets();
+
+            assertEquals(List.of("bt.acc.Sys B.Admin", "bt.acc.Sys.Root"), new ArrayList<>(snapshot.keySet()));
+            assertEquals("password-101", snapshot.get("bt.acc.Sys B.Admin"));
+            assertEquals("password-102", snapshot.get("bt.acc.Sys.Root"));
+        }
+
+        assertEquals(3, accountQueries.size());
+        assertFalse(accountQueries.contains("null"));
+    }
+
+    @Test
+    @DisplayName("Belirsiz account adi veya threshold asimi durumunda tam ManagedAccounts listesine donulmeli")
+    void filteredLookupFallsBackToFullListing() throws Exception {
+        for (String managedAccounts : List.of("db.prod.root", "Sys.A;Sys.B;Sys.C")) {
+            BeyondTrustOptions options = new BeyondTrustOptions();
+            options.setEnabled(true);
+            options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+            options.setUseAppUser(false);
+            options.setApiKey("api-key");
+            options.setManagedAccounts(managedAccounts);
+            options.setManagedAccountLookupThreshold(2);
+
+            List<String> accountQueries = new CopyOnWriteArrayList<>();
+            HttpClient client = mock(HttpClient.class);
+            when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+                HttpRequest request = invocation.getArgument(0);
+                if (request.uri().getPath().endsWith("/ManagedAccounts")) {
+                    accountQueries.add(String.valueOf(request.uri().getQuery()));
+                    return mockStreamResponse(200, "[]");
+                }
+                return mockResponse(200, "{}");
+            });
+
+            try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+                assertTrue(service.fetchAllSecrets().isEmpty());
+            }
+
+            assertEquals(List.of("null"), accountQueries);
+        }
+    }
+
+    @Test
+    @DisplayName("Stream olarak okunan ManagedAccounts ve Secrets-Safe body'leri okunduktan sonra kapatilmali")
+    void streamedResponsesAreDecodedIncrementallyAndClosed() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setManagedAccounts("Sys.Missing");
+        options.setSecretSafePaths("FolderA,FolderB");
+
+        List<TrackingInputStream> bodies = new CopyOnWriteArrayList<>();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String path = request.uri().getPath();
+            String query = String.valueOf(request.uri().getQuery());
+
+            if (path.endsWith("/ManagedAccounts")) {
+                return trackedStreamResponse(bodies, 200, "[{\"SystemName\":\"Sys\",\"AccountName\":\"Other\",\"SystemID\":1,\"AccountID\":2}]");
+            }
+            if (path.endsWith("/Secrets-Safe/Secrets") && query.endsWith("FolderA")) {
+                return trackedStreamResponse(bodies, 200, "[{\"Title\":\"One\",\"Password\":\"p1\"},{\"Title\":\"Two\",\"Password\":\"p2\"}]");
+            }
+            if (path.endsWith("/Secrets-Safe/Secrets")) {
+                return trackedStreamResponse(bodies, 200, "");
+            }
+            return mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            Map<String, String> snapshot = service.fetchAllSecrets();
+
+            assertEquals(List.of("bt.safe.FolderA.One.password", "bt.safe.FolderA.Two.password"), new ArrayList<>(snapshot.keySet()));
+        }
+
+        assertEquals(3, bodies.size());
+        assertTrue(bodies.stream().allMatch(body -> body.closed));
+    }
+
+    @Test
+    @DisplayName("Basarisiz stream response body'si hata firlatilmadan once kapatilmali")
+    void failedStreamedResponseIsClosed() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setSecretSafePaths("FolderA");
+
+        List<TrackingInputStream> bodies = new CopyOnWriteArrayList<>();
+        HttpClient client = mock(HttpClient.class);
+        when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            return request.uri().getPath().endsWith("/Secrets-Safe/Secrets")
+                    ? trackedStreamResponse(bodies, 500, "{\"error\":\"boom\"}")
+                    : mockResponse(200, "{}");
+        });
+
+        try (BeyondTrustService service = new BeyondTrustService(options, client)) {
+            assertThrows(IllegalStateException.class, service::fetchAllSecrets);
+        }
+
+        assertEquals(1, bodies.size());
+        assertTrue(bodies.get(0).closed);
+    }
+
+    private static HttpResponse<InputStream> trackedStreamResponse(List<TrackingInputStream> bodies, int statusCode, String body) {
+        TrackingInputStream stream = new TrackingInputStream(body);
+        bodies.add(stream);
+        @SuppressWarnings("unchecked")
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(stream);
+        when(response.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        return response;
+    }
+
+    private static final class TrackingInputStream extends ByteArrayInputStream {
+        private volatile boolean closed;
+
+        private TrackingInputStream(String body) {
+            super(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    private static int extractAccountId(HttpRequest request) throws Exception {
+        return extractField(request, "accountId");
+    }
+
+    private static int extractField(HttpRequest request, String field) throws Exception {
+        var subscriber = new CompletableFuture<String>();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<>() {
+            private final StringBuilder body = new StringBuilder();
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                body.append(StandardCharsets.UTF_8.decode(item));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                subscriber.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                subscriber.complete(body.toString());
+            }
+        });
+
+        return new com.fasterxml.jackson.databind.ObjectMapper()
+                .readTree(subscriber.get(5, TimeUnit.SECONDS))
+                .get(field)
+                .asInt();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void stubAsyncRoutes(HttpClient client, Function<HttpRequest, HttpResponse<?>> router) {
+        when(client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(router.apply(invocation.getArgument(0))));
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
-    private HttpResponse<String> mockResponse(int statusCode, String body) {
+    private static HttpResponse<String> mockResponse(int statusCode, String body) {
         HttpResponse response = mock(HttpResponse.class);
         when(response.statusCode()).thenReturn(statusCode);
         when(response.body()).thenReturn(body);
         return response;
     }
+
+    private static HttpResponse<InputStream> mockStreamResponse(int statusCode, String body) {
+        return mockStreamResponse(statusCode, body, Map.of());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static HttpResponse<InputStream> mockStreamResponse(int statusCode, String body, Map<String, List<String>> headers) {
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        when(response.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+        return response;
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeyondTrustSnapshotTest {
+
+    @Test
+    @DisplayName("Prefix ile sadece eslesen key'ler sirali olarak donmeli")
+    void byPrefixReturnsMatchingKeysInSortedOrder() {
+        BeyondTrustSnapshot snapshot = new BeyondTrustSnapshot(entries());
+
+        assertEquals(List.of("bt.acc.Sys.Admin", "bt.acc.Sys.Root", "bt.acc.System2.Root"),
+                List.copyOf(snapshot.getPropertiesByPrefix("bt.acc.Sys").keySet()));
+        assertEquals(List.of("bt.acc.Sys.Admin", "bt.acc.Sys.Root"),
+                List.copyOf(snapshot.getPropertiesByPrefix("bt.acc.Sys.").keySet()));
+        assertTrue(snapshot.getPropertiesByPrefix("bt.missing.").isEmpty());
+        assertEquals(entries().size(), snapshot.getPropertiesByPrefix("").size());
+    }
+
+    @Test
+    @DisplayName("Prefix sonu max char oldugunda da dogru aralik secilmeli")
+    void byPrefixHandlesMaxCharacterBoundary() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("a\uffff.one", "1");
+        entries.put("a\uffff\uffff", "2");
+        entries.put("b", "3");
+        entries.put("\uffff\uffff", "4");
+        BeyondTrustSnapshot snapshot = new BeyondTrustSnapshot(entries);
+
+        assertEquals(List.of("a\uffff.one", "a\uffff\uffff"), List.copyOf(snapshot.getPropertiesByPrefix("a\uffff").keySet()));
+        assertEquals(List.of("\uffff\uffff"), List.copyOf(snapshot.getPropertiesByPrefix("\uffff").keySet()));
+    }
+
+    @Test
+    @DisplayName("Subtree hiyerarsi seviyesine gore relative key'ler donmeli")
+    void subtreeReturnsRelativeKeysForHierarchyLevel() {
+        BeyondTrustSnapshot snapshot = new BeyondTrustSnapshot(entries());
+
+        assertEquals(Map.of("Admin", "admin-pass", "Root", "root-pass"), snapshot.getSubtree("bt.acc.Sys"));
+        assertEquals(Map.of("Title.password", "safe-pass", "Title.username", "safe-user"),
+                snapshot.getSubtree("bt.safe.Folder."));
+        assertTrue(snapshot.getSubtree("bt.safe.Missing").isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getSubtree("bt.acc.Sys").put("key", "value"));
+    }
+
+    @Test
+    @DisplayName("Content hash ekleme sirasindan bagimsiz olmali ve icerik degisikligini yakalamali")
+    void contentHashDetectsChangesIndependentOfOrder() {
+        Map<String, String> reversed = new LinkedHashMap<>();
+        List<Map.Entry<String, String>> original = List.copyOf(entries().entrySet());
+        for (int index = original.size() - 1; index >= 0; index--) {
+            reversed.put(original.get(index).getKey(), original.get(index).getValue());
+        }
+
+        long hash = new BeyondTrustSnapshot(entries()).getContentHash();
+        assertEquals(hash, new BeyondTrustSnapshot(reversed).getContentHash());
+
+        Map<String, String> changed = entries();
+        changed.put("bt.acc.Sys.Root", "rotated");
+        assertNotEquals(hash, new BeyondTrustSnapshot(changed).getContentHash());
+        assertNotEquals(new BeyondTrustSnapshot(Map.of("ab", "c")).getContentHash(),
+                new BeyondTrustSnapshot(Map.of("a", "bc")).getContentHash());
+        assertNotEquals(hash, BeyondTrustSnapshot.EMPTY.getContentHash());
+    }
+
+    @Test
+    @DisplayName("Coklu key okumasi istenen sirayla ve tek snapshot uzerinden donmeli")
+    void getPropertiesReturnsRequestedKeysFromSingleSnapshot() {
+        BeyondTrustSnapshot snapshot = new BeyondTrustSnapshot(entries(), Set.of("bt.acc.Sys.Root"), 7);
+
+        Map<String, String> values = snapshot.getProperties(List.of("bt.safe.Folder.Title.password", "bt.missing", "bt.safe.Folder.Title.username"));
+
+        assertEquals(List.of("bt.safe.Folder.Title.password", "bt.safe.Folder.Title.username"), List.copyOf(values.keySet()));
+        assertEquals("safe-pass", values.get("bt.safe.Folder.Title.password"));
+        assertThrows(UnsupportedOperationException.class, () -> values.put("key", "value"));
+        assertEquals(7, snapshot.getGeneration());
+        assertEquals(5, snapshot.size());
+        assertEquals("root-pass", snapshot.getProperty("bt.acc.Sys.Root"));
+        assertEquals("fallback", snapshot.getProperty("bt.missing", "fallback"));
+        assertEquals(Set.of("bt.acc.Sys.Root"), snapshot.getStaleKeys());
+        assertEquals(List.of("bt.acc.Sys.Admin", "bt.acc.Sys.Root"), List.copyOf(snapshot.getPropertiesByPrefix("bt.acc.Sys.").keySet()));
+        assertEquals(Map.of("Admin", "admin-pass", "Root", "root-pass"), snapshot.getSubtree("bt.acc.Sys"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getPropertyMap().put("key", "value"));
+        assertThrows(NullPointerException.class, () -> snapshot.getPropertiesByPrefix(null));
+    }
+
+    private static Map<String, String> entries() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("bt.safe.Folder.Title.username", "safe-user");
+        entries.put("bt.acc.System2.Root", "system2-pass");
+        entries.put("bt.acc.Sys.Root", "root-pass");
+        entries.put("bt.safe.Folder.Title.password", "safe-pass");
+        entries.put("bt.acc.Sys.Admin", "admin-pass");
+        return entries;
+    }
+}
@@ -0,0 +1,68 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeyondTrustThreadsIT {
+
+    @Test
+    @DisplayName("Multi-release JAR calisan Java surumune uygun BeyondTrustThreads sinifini yuklemeli")
+    void packagedJarSelectsVersionedThreadsClass() throws Exception {
+        assertTrue(BeyondTrustThreads.class.getProtectionDomain().getCodeSource().getLocation().getPath().endsWith(".jar"));
+        assertEquals(Runtime.version().feature() >= 21, BeyondTrustThreads.virtualThreadsSupported());
+
+        ExecutorService executor = BeyondTrustThreads.newExecutor("BeyondTrust-Fetch-", 1, true);
+        try {
+            assertEquals(BeyondTrustThreads.virtualThreadsSupported(), executor.submit(BeyondTrustThreadsIT::currentThreadIsVirtual).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Virtual thread modu servis ve manager executorlerinde kullanilmali, HTTP executor close ile kapanmali")
+    void virtualThreadModeIsWiredThroughServiceAndManager() throws Exception {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("https://pam.example.com/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setRefreshIntervalSeconds(3600);
+        options.setVirtualThreadsEnabled(true);
+
+        BeyondTrustService service = new BeyondTrustService(options);
+        ExecutorService httpExecutor = (ExecutorService) field(service, "ownedHttpExecutor");
+        assertEquals(BeyondTrustThreads.virtualThreadsSupported(), httpExecutor != null);
+        service.close();
+        if (httpExecutor != null) {
+            assertTrue(httpExecutor.isShutdown());
+        }
+
+        try (BeyondTrustConfigurationManager manager = new BeyondTrustConfigurationManager(options, () -> Map.of("bt.acc.Sys.Account", "value"))) {
+            manager.load();
+            ScheduledExecutorService scheduler = (ScheduledExecutorService) field(manager, "scheduler");
+            assertEquals(BeyondTrustThreads.virtualThreadsSupported(), scheduler.submit(BeyondTrustThreadsIT::currentThreadIsVirtual).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static boolean currentThreadIsVirtual() throws Exception {
+        if (Runtime.version().feature() < 21) {
+            return false;
+        }
+
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread());
+    }
+
+    private static Object field(Object target, String name) throws Exception {
+        var field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+}
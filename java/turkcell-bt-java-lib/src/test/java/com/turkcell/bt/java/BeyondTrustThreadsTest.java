@@ -0,0 +1,45 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeyondTrustThreadsTest {
+
+    @Test
+    @DisplayName("Thread factory isimlendirilmis daemon threadler uretmeli")
+    void threadFactoryCreatesNamedDaemonThreads() {
+        Thread first = BeyondTrustThreads.threadFactory("BeyondTrust-Test-", false).newThread(() -> { });
+        Thread fallback = BeyondTrustThreads.threadFactory("BeyondTrust-Test-", true).newThread(() -> { });
+
+        assertEquals("BeyondTrust-Test-1", first.getName());
+        assertTrue(first.isDaemon());
+        assertEquals("BeyondTrust-Test-1", fallback.getName());
+        assertTrue(fallback.isDaemon());
+    }
+
+    @Test
+    @DisplayName("Executor islemleri verilen prefix ile isimlendirilmis threadlerde calistirmali")
+    void executorRunsTasksOnNamedThreads() throws Exception {
+        for (boolean virtual : new boolean[] {false, true}) {
+            ExecutorService executor = BeyondTrustThreads.newExecutor("BeyondTrust-Fetch-", 0, virtual);
+            try {
+                assertTrue(executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS).startsWith("BeyondTrust-Fetch-"));
+                assertTrue(executor.submit(() -> Thread.currentThread().isDaemon()).get(5, TimeUnit.SECONDS));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Unit testler target/classes uzerinden Java 17 base sinifini yuklemeli, Java 21 varyanti BeyondTrustThreadsIT ile test edilmeli")
+    void unitTestsLoadBaseThreadsClass() {
+        assertFalse(BeyondTrustThreads.class.getProtectionDomain().getCodeSource().getLocation().getPath().endsWith(".jar"));
+        assertFalse(BeyondTrustThreads.virtualThreadsSupported());
+    }
+}
@@ -0,0 +1,178 @@
+package com.turkcell.bt.java;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Timeout(value = 90, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+class BeyondTrustVirtualThreadContentionIT {
+
+    private static final int FETCH_CONCURRENCY = Runtime.getRuntime().availableProcessors() * 4;
+    private static final int ACCOUNT_COUNT = FETCH_CONCURRENCY * 2;
+
+    private final AtomicInteger signIns = new AtomicInteger();
+    private final AtomicInteger requestLookups = new AtomicInteger();
+    private final AtomicInteger rejectedCredentials = new AtomicInteger();
+    private final Set<String> rejectedPaths = ConcurrentHashMap.newKeySet();
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/BeyondTrust/api/public/v3/", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Virtual thread modunda islemci sayisindan fazla fetch eszamanli 409 ve 401 yanitlarinda takilmadan tamamlanmali")
+    void fetchCompletesUnderConcurrentConflictsAndRejections() throws Exception {
+        try (BeyondTrustService service = new BeyondTrustService(options(false))) {
+            Map<String, String> snapshot = CompletableFuture.supplyAsync(service::fetchAllSecrets)
+                    .get(60, TimeUnit.SECONDS);
+
+            assertEquals(ACCOUNT_COUNT, snapshot.size());
+            for (int accountId = 1; accountId <= ACCOUNT_COUNT; accountId++) {
+                assertEquals("password-r" + accountId, snapshot.get("bt.acc.Sys.Account" + accountId));
+            }
+            assertEquals(1, requestLookups.get());
+            assertEquals(ACCOUNT_COUNT / 2, rejectedCredentials.get());
+            assertTrue(signIns.get() >= 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Virtual thread modunda ayni lazy credential icin eszamanli okumalar tek yukleme ile tamamlanmali")
+    void lazyCredentialReadsCompleteUnderConcurrentRejections() throws Exception {
+        try (BeyondTrustService service = new BeyondTrustService(options(true))) {
+            service.fetchAllSecrets();
+
+            ExecutorService readers = BeyondTrustThreads.newExecutor("BeyondTrust-Reader-", FETCH_CONCURRENCY, true);
+            try {
+                List<CompletableFuture<String>> reads = new ArrayList<>();
+                for (int reader = 0; reader < FETCH_CONCURRENCY; reader++) {
+                    String key = "bt.acc.Sys.Account" + (reader % 4 + 1);
+                    reads.add(CompletableFuture.supplyAsync(() -> service.resolveLazyCredential(key), readers));
+                }
+
+                CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+                for (int reader = 0; reader < FETCH_CONCURRENCY; reader++) {
+                    assertEquals("password-r" + (reader % 4 + 1), reads.get(reader).join());
+                }
+                assertEquals(4, requestLookups.get());
+                assertEquals(2, rejectedCredentials.get());
+            } finally {
+                readers.shutdownNow();
+            }
+        }
+    }
+
+    private BeyondTrustOptions options(boolean lazy) {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setEnabled(true);
+        options.setApiUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/BeyondTrust/api/public/v3");
+        options.setUseAppUser(false);
+        options.setApiKey("api-key");
+        options.setAllManagedAccountsEnabled(true);
+        options.setLazyManagedAccountsEnabled(lazy);
+        options.setFetchConcurrency(FETCH_CONCURRENCY);
+        options.setVirtualThreadsEnabled(true);
+        return options;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+
+        if (path.endsWith("/Auth/SignAppin")) {
+            signIns.incrementAndGet();
+            respond(exchange, 200, "{}");
+        } else if (path.endsWith("/ManagedAccounts")) {
+            StringBuilder accounts = new StringBuilder("[");
+            for (int accountId = 1; accountId <= ACCOUNT_COUNT; accountId++) {
+                accounts.append(accountId == 1 ? "" : ",")
+                        .append("{\"SystemName\":\"Sys\",\"AccountName\":\"Account").append(accountId)
+                        .append("\",\"SystemID\":1,\"AccountID\":").append(accountId).append('}');
+            }
+            respond(exchange, 200, accounts.append(']').toString());
+        } else if (path.endsWith("/Requests") && "POST".equals(method)) {
+            pause();
+            respond(exchange, 409, "\"Request already exists\"");
+        } else if (path.endsWith("/Requests")) {
+            requestLookups.incrementAndGet();
+            pause();
+            StringBuilder requests = new StringBuilder("[");
+            for (int accountId = 1; accountId <= ACCOUNT_COUNT; accountId++) {
+                requests.append(accountId == 1 ? "" : ",")
+                        .append("{\"RequestID\":\"r").append(accountId)
+                        .append("\",\"SystemID\":1,\"AccountID\":").append(accountId).append('}');
+            }
+            respond(exchange, 200, requests.append(']').toString());
+        } else if (path.contains("/Credentials/")) {
+            pause();
+            String requestId = path.substring(path.lastIndexOf('/') + 1);
+            if (Integer.parseInt(requestId.substring(1)) % 2 == 0 && markRejected(exchange)) {
+                respond(exchange, 401, "");
+            } else {
+                respond(exchange, 200, "\"password-" + requestId + "\"");
+            }
+        } else {
+            respond(exchange, 200, "{}");
+        }
+    }
+
+    private boolean markRejected(HttpExchange exchange) {
+        if (!rejectedPaths.add(exchange.getRequestURI().getPath())) {
+            return false;
+        }
+
+        rejectedCredentials.incrementAndGet();
+        return true;
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
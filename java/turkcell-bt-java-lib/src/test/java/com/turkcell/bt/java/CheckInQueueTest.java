@@ -0,0 +1,80 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckInQueueTest {
+
+    @Test
+    @DisplayName("Basarisiz check-in yeniden denenmeli ve basarili olunca kuyruktan cikmali")
+    void retriesFailedCheckInUntilSuccess() {
+        AtomicInteger attempts = new AtomicInteger();
+        CheckInQueue queue = new CheckInQueue(requestId -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new IllegalStateException("temporary"))
+                : CompletableFuture.completedFuture(null), 3, Duration.ofMillis(5));
+
+        queue.submit("77");
+
+        assertTrue(queue.drain(Duration.ofSeconds(5)));
+        assertEquals(3, attempts.get());
+        assertEquals(0, queue.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Maksimum deneme sayisina ulasildiginda check-in birakilmali")
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        CheckInQueue queue = new CheckInQueue(requestId -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("always failing");
+        }, 2, Duration.ofMillis(5));
+
+        queue.submit("77");
+
+        assertTrue(queue.drain(Duration.ofSeconds(5)));
+        assertEquals(2, attempts.get());
+        assertEquals(0, queue.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Drain bekleyen check-in'ler tamamlanana kadar beklemeli")
+    void drainWaitsForPendingCheckIns() {
+        List<String> completed = new CopyOnWriteArrayList<>();
+        CheckInQueue queue = new CheckInQueue(requestId -> CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            completed.add(requestId);
+        }), 1, Duration.ofMillis(5));
+
+        queue.submit("1");
+        queue.submit("2");
+
+        assertTrue(queue.drain(Duration.ofSeconds(5)));
+        assertEquals(2, completed.size());
+    }
+
+    @Test
+    @DisplayName("Drain timeout asildiginda false donmeli")
+    void drainReturnsFalseOnTimeout() {
+        CompletableFuture<Void> neverCompletes = new CompletableFuture<>();
+        CheckInQueue queue = new CheckInQueue(requestId -> neverCompletes, 1, Duration.ofMillis(5));
+
+        queue.submit("77");
+
+        assertFalse(queue.drain(Duration.ofMillis(50)));
+        assertEquals(1, queue.pendingCount());
+        neverCompletes.complete(null);
+        assertEquals(0, queue.pendingCount());
+    }
+}
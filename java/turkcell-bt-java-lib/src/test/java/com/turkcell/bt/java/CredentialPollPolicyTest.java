@@ -0,0 +1,53 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialPollPolicyTest {
+
+    @Test
+    @DisplayName("Backoff her denemede iki katina cikmali ve jitter ile yarim-tam araliginda kalmali")
+    void backoffGrowsExponentiallyWithinJitterRange() {
+        CredentialPollPolicy lowest = policy(0.0);
+        CredentialPollPolicy highest = policy(0.999999);
+
+        assertEquals(Duration.ofMillis(500), lowest.backoff(1));
+        assertEquals(Duration.ofMillis(999), highest.backoff(1));
+        assertEquals(Duration.ofMillis(1000), lowest.backoff(2));
+        assertEquals(Duration.ofMillis(1999), highest.backoff(2));
+        assertEquals(Duration.ofMillis(2000), lowest.backoff(3));
+    }
+
+    @Test
+    @DisplayName("Backoff maksimum gecikmeyi asmamali ve yuksek deneme sayisinda tasmamali")
+    void backoffIsCappedAtMaxDelay() {
+        CredentialPollPolicy highest = policy(0.999999);
+
+        assertEquals(Duration.ofMillis(4999), highest.backoff(4));
+        assertEquals(Duration.ofMillis(4999), highest.backoff(1_000));
+        assertEquals(Duration.ofMillis(2500), policy(0.0).backoff(Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Options degerleri policy'e aktarilmali")
+    void fromOptionsUsesConfiguredValues() {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setCredentialPollAttempts(7);
+        options.setCredentialPollTimeoutSeconds(45);
+
+        CredentialPollPolicy policy = CredentialPollPolicy.fromOptions(options);
+
+        assertEquals(7, policy.maxAttempts());
+        assertEquals(Duration.ofSeconds(45), policy.timeout());
+        Duration firstBackoff = policy.backoff(1);
+        assertTrue(firstBackoff.toMillis() >= 500 && firstBackoff.toMillis() <= 1000);
+    }
+
+    private static CredentialPollPolicy policy(double random) {
+        return new CredentialPollPolicy(5, Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(30), () -> random);
+    }
+}
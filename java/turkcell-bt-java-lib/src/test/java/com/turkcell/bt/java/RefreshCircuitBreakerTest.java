@@ -0,0 +1,77 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshCircuitBreakerTest {
+
+    @Test
+    @DisplayName("Esik altindaki hatalarda normal interval korunmali")
+    void keepsNormalIntervalBelowThreshold() {
+        RefreshCircuitBreaker breaker = new RefreshCircuitBreaker(3, 3600);
+
+        assertEquals(BeyondTrustCircuitState.CLOSED, breaker.recordFailure());
+        breaker.recordFailure();
+
+        assertEquals(BeyondTrustCircuitState.CLOSED, breaker.state());
+        assertEquals(2, breaker.consecutiveFailures());
+        assertEquals(60, breaker.nextDelaySeconds(60));
+        assertFalse(breaker.tryHalfOpen());
+    }
+
+    @Test
+    @DisplayName("Circuit acikken bekleme ussel artmali ve max backoff ile sinirlanmali")
+    void backsOffExponentiallyUpToMaximum() {
+        RefreshCircuitBreaker breaker = new RefreshCircuitBreaker(2, 1000);
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertEquals(BeyondTrustCircuitState.OPEN, breaker.state());
+        assertEquals(120, breaker.nextDelaySeconds(60));
+
+        breaker.recordFailure();
+        assertEquals(240, breaker.nextDelaySeconds(60));
+
+        for (int index = 0; index < 40; index++) {
+            breaker.recordFailure();
+        }
+        assertEquals(1000, breaker.nextDelaySeconds(60));
+        assertEquals(5000, breaker.nextDelaySeconds(5000));
+    }
+
+    @Test
+    @DisplayName("Half-open denemesi basarisizsa circuit tekrar acilmali, basariliysa kapanmali")
+    void halfOpenTransitions() {
+        RefreshCircuitBreaker breaker = new RefreshCircuitBreaker(1, 3600);
+        breaker.recordFailure();
+
+        assertTrue(breaker.tryHalfOpen());
+        assertEquals(BeyondTrustCircuitState.HALF_OPEN, breaker.state());
+        assertEquals(30, breaker.nextDelaySeconds(30));
+        assertEquals(BeyondTrustCircuitState.HALF_OPEN, breaker.recordFailure());
+        assertEquals(BeyondTrustCircuitState.OPEN, breaker.state());
+        assertEquals(120, breaker.nextDelaySeconds(30));
+
+        assertTrue(breaker.tryHalfOpen());
+        assertEquals(BeyondTrustCircuitState.HALF_OPEN, breaker.recordSuccess());
+        assertEquals(BeyondTrustCircuitState.CLOSED, breaker.state());
+        assertEquals(0, breaker.consecutiveFailures());
+        assertEquals(30, breaker.nextDelaySeconds(30));
+    }
+
+    @Test
+    @DisplayName("fromOptions esik ve max backoff degerlerini kullanmali")
+    void fromOptionsUsesConfiguredValues() {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setCircuitFailureThreshold(1);
+        options.setCircuitMaxBackoffSeconds(90);
+
+        RefreshCircuitBreaker breaker = RefreshCircuitBreaker.fromOptions(options);
+        breaker.recordFailure();
+
+        assertEquals(BeyondTrustCircuitState.OPEN, breaker.state());
+        assertEquals(90, breaker.nextDelaySeconds(60));
+    }
+}
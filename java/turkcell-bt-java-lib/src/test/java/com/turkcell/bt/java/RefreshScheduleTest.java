@@ -0,0 +1,85 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshScheduleTest {
+
+    @Test
+    @DisplayName("Spread ve jitter kapaliyken refresh interval aynen kullanilmali")
+    void keepsFixedIntervalWhenDisabled() {
+        RefreshSchedule schedule = new RefreshSchedule(BeyondTrustRefreshSpread.NONE, 0, "pod-1", () -> 1_000, () -> 0.9);
+
+        assertEquals(1800, schedule.initialDelaySeconds(1800));
+        assertEquals(1800, schedule.nextDelaySeconds(1800, 1800));
+        assertEquals(3600, schedule.nextDelaySeconds(1800, 3600));
+    }
+
+    @Test
+    @DisplayName("Random spread ilk refreshi interval'in yarisi ile bir bucugu arasina dagitmali")
+    void randomSpreadDistributesInitialDelay() {
+        assertEquals(900, new RefreshSchedule(BeyondTrustRefreshSpread.RANDOM, 0, null, () -> 0, () -> 0.0).initialDelaySeconds(1800));
+        assertEquals(1800, new RefreshSchedule(BeyondTrustRefreshSpread.RANDOM, 0, null, () -> 0, () -> 0.5).initialDelaySeconds(1800));
+        assertEquals(2699, new RefreshSchedule(BeyondTrustRefreshSpread.RANDOM, 0, null, () -> 0, () -> 0.9999).initialDelaySeconds(1800));
+    }
+
+    @Test
+    @DisplayName("Instance spread her instance icin sabit bir saat dilimine hizalanmali")
+    void instanceSpreadAlignsToStableSlot() {
+        long interval = 1800;
+        AtomicLong now = new AtomicLong(1_750_000_123L);
+        RefreshSchedule schedule = new RefreshSchedule(BeyondTrustRefreshSpread.INSTANCE, 0, "orders-api-7f9c-abcde", now::get, () -> 0.5);
+
+        long initialDelay = schedule.initialDelaySeconds(interval);
+        assertTrue(initialDelay >= interval / 2 && initialDelay < interval + interval / 2);
+        long slot = Math.floorMod(now.get() + initialDelay, interval);
+
+        now.addAndGet(initialDelay + 7);
+        long nextDelay = schedule.nextDelaySeconds(interval, interval);
+        assertEquals(interval - 7, nextDelay);
+        assertEquals(slot, Math.floorMod(now.get() + nextDelay, interval));
+
+        RefreshSchedule restarted = new RefreshSchedule(BeyondTrustRefreshSpread.INSTANCE, 0, "orders-api-7f9c-abcde", () -> 1_760_000_000L, () -> 0.5);
+        assertEquals(slot, Math.floorMod(1_760_000_000L + restarted.initialDelaySeconds(interval), interval));
+
+        RefreshSchedule otherPod = new RefreshSchedule(BeyondTrustRefreshSpread.INSTANCE, 0, "orders-api-7f9c-abcdf", () -> 1_760_000_000L, () -> 0.5);
+        assertNotEquals(slot, Math.floorMod(1_760_000_000L + otherPod.initialDelaySeconds(interval), interval));
+    }
+
+    @Test
+    @DisplayName("Instance id yoksa instance spread random spread'e donmeli")
+    void instanceSpreadFallsBackToRandomWithoutInstanceId() {
+        RefreshSchedule schedule = new RefreshSchedule(BeyondTrustRefreshSpread.INSTANCE, 0, "  ", () -> 0, () -> 0.0);
+
+        assertEquals(BeyondTrustRefreshSpread.RANDOM, schedule.spread());
+        assertEquals(30, schedule.initialDelaySeconds(60));
+        assertEquals(BeyondTrustRefreshSpread.NONE, new RefreshSchedule(null, 0, null, () -> 0, () -> 0.0).spread());
+    }
+
+    @Test
+    @DisplayName("Jitter her cycle'da bekleme suresini yuzde araliginda oynatmali")
+    void jitterVariesEachDelayWithinPercentage() {
+        assertEquals(1620, new RefreshSchedule(BeyondTrustRefreshSpread.NONE, 10, null, () -> 0, () -> 0.0).nextDelaySeconds(1800, 1800));
+        assertEquals(1800, new RefreshSchedule(BeyondTrustRefreshSpread.NONE, 10, null, () -> 0, () -> 0.5).nextDelaySeconds(1800, 1800));
+        assertEquals(1980, new RefreshSchedule(BeyondTrustRefreshSpread.NONE, 10, null, () -> 0, () -> 1.0).initialDelaySeconds(1800));
+        assertEquals(1, new RefreshSchedule(BeyondTrustRefreshSpread.NONE, 500, null, () -> 0, () -> 0.0).nextDelaySeconds(1, 1));
+    }
+
+    @Test
+    @DisplayName("fromOptions spread, jitter ve instance id degerlerini kullanmali")
+    void fromOptionsUsesConfiguredValues() {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setRefreshSpread(BeyondTrustRefreshSpread.INSTANCE);
+        options.setInstanceId("pod-a");
+
+        RefreshSchedule schedule = RefreshSchedule.fromOptions(options);
+
+        assertEquals(BeyondTrustRefreshSpread.INSTANCE, schedule.spread());
+        long delay = schedule.initialDelaySeconds(600);
+        assertTrue(delay >= 300 && delay < 900);
+    }
+}
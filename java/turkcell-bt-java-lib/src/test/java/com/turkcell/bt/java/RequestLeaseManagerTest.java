@@ -0,0 +1,96 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLeaseManagerTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    @DisplayName("Lease suresi icinde credential tekrar kullanilabilmeli")
+    void reusesCredentialWithinLeaseWindow() {
+        MutableClock clock = new MutableClock(START);
+        RequestLeaseManager leases = new RequestLeaseManager(Duration.ofMinutes(5), clock);
+
+        leases.put(1, 2, "77", "password", START);
+        clock.instant = START.plus(Duration.ofMinutes(3));
+
+        assertEquals("password", leases.credential(1, 2));
+        assertNull(leases.credential(1, 3));
+        assertNull(leases.removeExpiring(1, 2));
+    }
+
+    @Test
+    @DisplayName("Lease bitimine yaklasildiginda credential kullanilmamali ve request bir kez birakilmali")
+    void expiringLeaseIsReleasedOnce() {
+        MutableClock clock = new MutableClock(START);
+        RequestLeaseManager leases = new RequestLeaseManager(Duration.ofMinutes(5), clock);
+
+        leases.put(1, 2, "77", "password", START);
+        clock.instant = START.plus(Duration.ofMinutes(4));
+
+        assertNull(leases.credential(1, 2));
+        assertEquals("77", leases.removeExpiring(1, 2));
+        assertNull(leases.removeExpiring(1, 2));
+        assertEquals(0, leases.size());
+    }
+
+    @Test
+    @DisplayName("Kisa lease surelerinde yenileme payi surenin yarisini gecmemeli")
+    void renewalMarginIsCappedForShortLeases() {
+        MutableClock clock = new MutableClock(START);
+        RequestLeaseManager leases = new RequestLeaseManager(Duration.ofMinutes(1), clock);
+
+        leases.put(1, 2, "77", "password", START);
+        clock.instant = START.plusSeconds(29);
+        assertEquals("password", leases.credential(1, 2));
+
+        clock.instant = START.plusSeconds(30);
+        assertNull(leases.credential(1, 2));
+    }
+
+    @Test
+    @DisplayName("removeAll tum acik request'leri donmeli")
+    void removeAllReturnsEveryRequest() {
+        RequestLeaseManager leases = new RequestLeaseManager(Duration.ofMinutes(5), new MutableClock(START));
+
+        leases.put(1, 2, "77", "password", START);
+        leases.put(2, 1, "78", "password", START);
+
+        assertEquals(List.of("77", "78"), leases.removeAll().stream().sorted().toList());
+        assertEquals(0, leases.size());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
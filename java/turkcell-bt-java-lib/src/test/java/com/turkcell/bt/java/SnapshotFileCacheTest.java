@@ -0,0 +1,108 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Yazilan snapshot ayni anahtar ile geri okunabilmeli")
+    void writeAndReadRoundTrip() {
+        Path file = tempDir.resolve("cache/snapshot.bin");
+        SnapshotFileCache cache = new SnapshotFileCache(file, "cache-key", Duration.ofHours(1), fixedClock(NOW));
+
+        cache.write(snapshot());
+
+        assertEquals(List.copyOf(snapshot().keySet()), List.copyOf(cache.read().keySet()));
+        assertEquals(snapshot(), cache.read());
+    }
+
+    @Test
+    @DisplayName("Snapshot dosyasi secret degerlerini plaintext olarak icermemeli")
+    void writtenFileIsEncrypted() throws Exception {
+        Path file = tempDir.resolve("snapshot.bin");
+        new SnapshotFileCache(file, "cache-key", Duration.ofHours(1), fixedClock(NOW)).write(snapshot());
+
+        String content = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+
+        assertFalse(content.contains("secret-password"));
+        assertFalse(content.contains("bt.acc.Sys.Account"));
+    }
+
+    @Test
+    @DisplayName("Farkli anahtar ile okunan snapshot yok sayilmali")
+    void readWithWrongKeyReturnsNull() {
+        Path file = tempDir.resolve("snapshot.bin");
+        new SnapshotFileCache(file, "cache-key", Duration.ofHours(1), fixedClock(NOW)).write(snapshot());
+
+        assertNull(new SnapshotFileCache(file, "other-key", Duration.ofHours(1), fixedClock(NOW)).read());
+    }
+
+    @Test
+    @DisplayName("Maksimum yastan eski snapshot yok sayilmali")
+    void readIgnoresExpiredSnapshot() {
+        Path file = tempDir.resolve("snapshot.bin");
+        new SnapshotFileCache(file, "cache-key", Duration.ofHours(1), fixedClock(NOW)).write(snapshot());
+
+        SnapshotFileCache laterCache = new SnapshotFileCache(file, "cache-key", Duration.ofHours(1),
+                fixedClock(NOW.plus(Duration.ofHours(2))));
+
+        assertNull(laterCache.read());
+    }
+
+    @Test
+    @DisplayName("Eksik veya bozuk snapshot dosyasi null donmeli")
+    void readReturnsNullForMissingOrCorruptFile() throws Exception {
+        Path file = tempDir.resolve("snapshot.bin");
+        SnapshotFileCache cache = new SnapshotFileCache(file, "cache-key", Duration.ofHours(1), fixedClock(NOW));
+
+        assertNull(cache.read());
+
+        Files.write(file, "not-a-snapshot".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(cache.read());
+    }
+
+    @Test
+    @DisplayName("Path veya key eksikse cache olusturulmamali")
+    void fromOptionsRequiresPathAndKey() {
+        BeyondTrustOptions options = new BeyondTrustOptions();
+        options.setSnapshotCachePath(tempDir.resolve("snapshot.bin").toString());
+
+        assertNull(SnapshotFileCache.fromOptions(options));
+
+        options.setSnapshotCacheKey("cache-key");
+
+        assertNotNull(SnapshotFileCache.fromOptions(options));
+    }
+
+    private static Map<String, String> snapshot() {
+        Map<String, String> snapshot = new LinkedHashMap<>();
+        snapshot.put("bt.acc.Sys.Account", "secret-password");
+        snapshot.put("bt.safe.Folder.Title.password", "safe-password");
+        return snapshot;
+    }
+
+    private static Clock fixedClock(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+}
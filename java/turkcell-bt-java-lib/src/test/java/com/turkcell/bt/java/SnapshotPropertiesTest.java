@@ -0,0 +1,95 @@
+package com.turkcell.bt.java;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotPropertiesTest {
+
+    @Test
+    @DisplayName("Properties view snapshot degerlerini kopyalamadan okumali")
+    void readsSnapshotValues() {
+        Properties properties = new SnapshotProperties(snapshot());
+
+        assertEquals("secret-password", properties.getProperty("bt.acc.Sys.Account"));
+        assertEquals("fallback", properties.getProperty("missing", "fallback"));
+        assertEquals("safe-password", properties.get("bt.safe.Folder.Title.password"));
+        assertTrue(properties.containsKey("bt.acc.Sys.Account"));
+        assertTrue(properties.containsValue("safe-password"));
+        assertEquals(2, properties.size());
+        assertFalse(properties.isEmpty());
+        assertEquals(List.of("bt.acc.Sys.Account", "bt.safe.Folder.Title.password"),
+                List.copyOf(properties.stringPropertyNames()));
+        assertEquals(List.of("bt.acc.Sys.Account", "bt.safe.Folder.Title.password"),
+                Collections.list(properties.keys()));
+        assertEquals(snapshot(), properties);
+    }
+
+    @Test
+    @DisplayName("Properties view uzerinden degisiklik yapilamamali")
+    void rejectsMutations() {
+        Properties properties = new SnapshotProperties(snapshot());
+
+        assertThrows(UnsupportedOperationException.class, () -> properties.setProperty("key", "value"));
+        assertThrows(UnsupportedOperationException.class, () -> properties.put("key", "value"));
+        assertThrows(UnsupportedOperationException.class, () -> properties.remove("bt.acc.Sys.Account"));
+        assertThrows(UnsupportedOperationException.class, properties::clear);
+        assertThrows(UnsupportedOperationException.class, () -> properties.load(new StringReader("key=value")));
+        assertThrows(UnsupportedOperationException.class, () -> properties.keySet().remove("bt.acc.Sys.Account"));
+        assertThrows(UnsupportedOperationException.class, () -> properties.entrySet().clear());
+    }
+
+    @Test
+    @DisplayName("Properties view store ve clone ile standart Properties gibi kullanilabilmeli")
+    void supportsStoreAndClone() throws Exception {
+        Properties properties = new SnapshotProperties(snapshot());
+
+        StringWriter writer = new StringWriter();
+        properties.store(writer, null);
+        Properties stored = new Properties();
+        stored.load(new StringReader(writer.toString()));
+        assertEquals(snapshot(), stored);
+
+        Properties copy = (Properties) properties.clone();
+        copy.setProperty("extra", "value");
+        assertEquals("value", copy.getProperty("extra"));
+        assertNull(properties.getProperty("extra"));
+    }
+
+    @Test
+    @DisplayName("Properties view serialize edildiginde standart Properties olarak okunmali")
+    void serializesAsPlainProperties() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(new SnapshotProperties(snapshot()));
+        }
+
+        Object restored;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = input.readObject();
+        }
+
+        assertEquals(Properties.class, restored.getClass());
+        assertEquals(snapshot(), restored);
+    }
+
+    private static Map<String, String> snapshot() {
+        Map<String, String> snapshot = new LinkedHashMap<>();
+        snapshot.put("bt.acc.Sys.Account", "secret-password");
+        snapshot.put("bt.safe.Folder.Title.password", "safe-password");
+        return snapshot;
+    }
+}